@@ -0,0 +1,175 @@
+// Classe principal da Árvore B: o catálogo de livros, com uma Árvore B por ISBN (a chave
+// do catálogo) e um índice secundário por título (IndiceLivros), atualizados juntos
+class ArvoreB {
+    // Valor escolhido pelo ArvoreB_Benchmark: altura 4 com um milhão de ISBNs
+    static final int GRAU_MINIMO_PADRAO = 64;
+
+    final int t; // Grau mínimo 
+    final IndiceLivros porIsbn; // Árvore B por ISBN 
+    final IndiceLivros porTitulo; // Índice secundário por título (e ISBN entre títulos iguais) 
+
+    // Construtor com o grau mínimo padrão
+    public ArvoreB() {
+        this(GRAU_MINIMO_PADRAO);
+    }
+
+    // Construtor: cada nó guarda até 2t - 1 chaves
+    public ArvoreB(int t) {
+        if (t < 2) {
+            throw new IllegalArgumentException("O grau mínimo da Árvore B deve ser pelo menos 2: " + t);
+        }
+        this.t = t;
+        porIsbn = new IndiceLivros(t, OrdemLivros.POR_ISBN);
+        porTitulo = new IndiceLivros(t, OrdemLivros.POR_TITULO);
+    }
+
+    // Quantidade de níveis da árvore por ISBN, da raiz até as folhas
+    public int altura() {
+        return porIsbn.altura();
+    }
+
+    // Método público para inserir uma chave (Livro). Retorna falso, sem alterar o catálogo,
+    // se já houver um livro com o mesmo ISBN: com ISBNs repetidos, a remoção poderia tirar
+    // um livro de uma árvore e outro, de mesmo ISBN, da outra
+    public boolean inserir(Livro novoLivro) {
+        if (!porIsbn.inserir(novoLivro)) {
+            return false;
+        }
+        porTitulo.inserir(novoLivro);
+        return true;
+    }
+
+    // Método para buscar uma chave (ISBN); hífens e espaços são ignorados 
+    public Livro buscar(String isbnBuscado) {
+        return porIsbn.buscar(Livro.sondaIsbn(isbnBuscado));
+    }
+
+    // Carrega n livros numa árvore vazia de uma vez: ordena por ISBN, descarta os ISBNs
+    // repetidos (fica o primeiro) e monta as duas árvores de baixo para cima, sem passar por
+    // inserir. Retorna quantos livros entraram
+    public int construirEmLote(Livro[] livros, int n) {
+        if (tamanho() > 0) {
+            throw new IllegalStateException("A carga em lote exige uma Árvore B vazia");
+        }
+        Livro[] ordenadosPorIsbn = new Livro[n];
+        for (int i = 0; i < n; i++) {
+            ordenadosPorIsbn[i] = livros[i];
+        }
+        // Arrays.sort de objetos é estável: entre ISBNs repetidos fica o que veio antes
+        java.util.Arrays.sort(ordenadosPorIsbn, (a, b) -> a.compararISBN(b));
+        int unicos = 0;
+        for (int i = 0; i < n; i++) {
+            if (unicos == 0 || ordenadosPorIsbn[i].compararISBN(ordenadosPorIsbn[unicos - 1]) != 0) {
+                ordenadosPorIsbn[unicos++] = ordenadosPorIsbn[i];
+            }
+        }
+        porIsbn.construirOrdenado(ordenadosPorIsbn, unicos);
+
+        Livro[] ordenadosPorTitulo = new Livro[unicos];
+        for (int i = 0; i < unicos; i++) {
+            ordenadosPorTitulo[i] = ordenadosPorIsbn[i];
+        }
+        java.util.Arrays.sort(ordenadosPorTitulo, OrdemLivros.POR_TITULO::comparar);
+        porTitulo.construirOrdenado(ordenadosPorTitulo, unicos);
+        return unicos;
+    }
+
+    // Método para remover o livro com o ISBN informado (hífens e espaços são ignorados);
+    // retorna o livro removido ou null se o ISBN não estiver na árvore. O(t log n) em cada
+    // uma das duas árvores
+    public Livro remover(String isbn) {
+        Livro removido = porIsbn.remover(Livro.sondaIsbn(isbn));
+        if (removido != null && porTitulo.remover(removido) == null) {
+            throw new IllegalStateException("Livro fora do índice por título: " + removido.isbn);
+        }
+        return removido;
+    }
+
+    // Até limite livros cujo ISBN (sem hífens e espaços) começa com prefixo, na ordem da
+    // árvore: primeiro os ISBNs numéricos e depois os de texto (ver Livro.codificarIsbn).
+    // Como a codificação preserva a ordem alfabética, os ISBNs numéricos com o prefixo formam
+    // uma faixa contínua de chaves que começa em codificarIsbn(prefixo); o mesmo vale para os
+    // de texto a partir de (CHAVE_TEXTO, prefixo). Cada faixa custa O(altura + limite)
+    public ListaLivros buscarPorPrefixoDeIsbn(String prefixo, int limite) {
+        ListaLivros resultado = new ListaLivros();
+        if (limite <= 0) {
+            return resultado;
+        }
+        String normalizado = Livro.normalizarIsbn(prefixo);
+        // O prefixo vazio vira a chave numérica de zero dígitos, que aceita qualquer ISBN
+        long chave = normalizado.length() == 0 ? 0 : Livro.codificarIsbn(normalizado);
+        if (chave != Livro.CHAVE_TEXTO) {
+            porIsbn.percorrer(new Livro(null, chave, null),
+                    (no, i) -> Livro.chaveComecaCom(no.codigos[i], chave) && coletar(no.chaves[i], limite, resultado));
+        }
+        // Um prefixo numérico também pode começar um ISBN de texto, como "978-85-abc"
+        if (resultado.tamanho() < limite) {
+            porIsbn.percorrer(new Livro(null, Livro.CHAVE_TEXTO, normalizado),
+                    (no, i) -> Livro.comecaCom(no.textos[i], normalizado) && coletar(no.chaves[i], limite, resultado));
+        }
+        return resultado;
+    }
+
+    // Adiciona o livro ao resultado; retorna falso quando o limite foi atingido
+    private static boolean coletar(Livro livro, int limite, ListaLivros resultado) {
+        resultado.adicionar(livro);
+        return resultado.tamanho() < limite;
+    }
+
+    // Método para exibir os livros em ordem alfabética de título, percorrendo o índice por título
+    public void exibirEmOrdemPorTitulo() {
+        System.out.println("Livros em ordem alfabética por título:");
+        porTitulo.percorrer(null, (no, i) -> {
+            exibirLivro(no.chaves[i]);
+            return true;
+        });
+    }
+
+    static void exibirLivro(Livro livro) {
+        System.out.println("Título: " + livro.titulo + ", Autor: " + livro.autor + ", ISBN: " + livro.isbn);
+    }
+
+    // Livros com título entre de e ate (inclusive), em ordem de título. A busca desce até o
+    // primeiro título >= de e para no primeiro título depois de ate
+    public ListaLivros buscarPorFaixaDeTitulo(String de, String ate) {
+        ListaLivros resultado = new ListaLivros();
+        if (Livro.compareStrings(de, ate) <= 0) {
+            porTitulo.percorrer(new Livro(de, Long.MIN_VALUE, null), (no, i) -> {
+                if (Livro.compareStrings(no.textos[i], ate) > 0) {
+                    return false;
+                }
+                resultado.adicionar(no.chaves[i]);
+                return true;
+            });
+        }
+        return resultado;
+    }
+
+    // Página numero (a partir de 1) da listagem por título, com tamanhoPagina livros
+    public ListaLivros paginaPorTitulo(int numero, int tamanhoPagina) {
+        return porTitulo.pagina((numero - 1) * tamanhoPagina, tamanhoPagina);
+    }
+
+    // Até limite livros cujo título começa com prefixo, em ordem de título. A busca desce até
+    // o primeiro título >= prefixo e para no primeiro título sem o prefixo ou ao completar o
+    // limite, então custa O(altura + limite) qualquer que seja o tamanho do catálogo
+    public ListaLivros buscarPorPrefixoDeTitulo(String prefixo, int limite) {
+        ListaLivros resultado = new ListaLivros();
+        if (limite > 0) {
+            porTitulo.percorrer(new Livro(prefixo, Long.MIN_VALUE, null),
+                    (no, i) -> Livro.comecaCom(no.textos[i], prefixo) && coletar(no.chaves[i], limite, resultado));
+        }
+        return resultado;
+    }
+
+    // Quantidade de livros na árvore
+    public int tamanho() {
+        return porIsbn.tamanho();
+    }
+
+    // Método para exibir a estrutura da árvore 
+    public void exibirEstrutura() {
+        System.out.println("Estrutura da Árvore B:"); // escreva("Estrutura da Árvore B:\n") 
+        porIsbn.exibirEstrutura(); // exibirEstruturaNo(raiz, 0) 
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Latência de inserção e de busca por ISBN na ArvoreB (ArvoreB.java) para vários
+ * graus mínimos t. Os ISBN-13 são gerados aleatoriamente (prefixo 978/979 e dígito
+ * verificador) antes da medição; cada operação é cronometrada e a tabela mostra p50 e p99 em
+ * nanossegundos, a vazão e a altura final da árvore.
+ *
+ * Compilar junto com as classes da Árvore B: javac *.java
+ * Uso: java ArvoreB_Benchmark [quantidade de livros] [graus separados por vírgula]
+ */
+public class ArvoreB_Benchmark {
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] graus = (args.length > 1 ? args[1] : "2,3,4,8,16,32,64,128,256").split(",");
+
+        Random random = new Random(42);
+        Livro[] livros = new Livro[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            String isbn = gerarIsbn(random);
+            livros[i] = new Livro("Livro " + i, "Autor " + (i % 1000), isbn);
+        }
+        String[] consultas = new String[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            consultas[i] = livros[random.nextInt(quantidade)].isbn;
+        }
+
+        System.out.println("Livros: " + quantidade);
+        System.out.println(String.format("%-5s | %-6s | %-12s | %-10s | %-10s | %-12s | %-10s | %-10s",
+                "t", "altura", "inserções/s", "ins. p50", "ins. p99", "buscas/s", "busca p50", "busca p99"));
+        long[] latencias = new long[quantidade];
+        // A primeira passada só aquece o JIT
+        executar(Integer.parseInt(graus[0].trim()), livros, consultas, latencias, false);
+        for (String grau : graus) {
+            executar(Integer.parseInt(grau.trim()), livros, consultas, latencias, true);
+        }
+    }
+
+    private static void executar(int t, Livro[] livros, String[] consultas, long[] latencias, boolean imprimir) {
+        ArvoreB arvore = new ArvoreB(t);
+        long inicioTotal = System.nanoTime();
+        for (int i = 0; i < livros.length; i++) {
+            long inicio = System.nanoTime();
+            arvore.inserir(livros[i]);
+            latencias[i] = System.nanoTime() - inicio;
+        }
+        double insercoesPorSegundo = livros.length * 1e9 / (System.nanoTime() - inicioTotal);
+        long[] insercao = percentis(latencias);
+
+        inicioTotal = System.nanoTime();
+        for (int i = 0; i < consultas.length; i++) {
+            long inicio = System.nanoTime();
+            Livro encontrado = arvore.buscar(consultas[i]);
+            latencias[i] = System.nanoTime() - inicio;
+            if (encontrado == null) {
+                throw new IllegalStateException("ISBN inserido não encontrado: " + consultas[i]);
+            }
+        }
+        double buscasPorSegundo = consultas.length * 1e9 / (System.nanoTime() - inicioTotal);
+        long[] busca = percentis(latencias);
+
+        if (imprimir) {
+            System.out.println(String.format("%-5d | %-6d | %-12.0f | %-10d | %-10d | %-12.0f | %-10d | %-10d",
+                    t, arvore.altura(), insercoesPorSegundo, insercao[0], insercao[1],
+                    buscasPorSegundo, busca[0], busca[1]));
+        }
+    }
+
+    /**
+     * p50 e p99; ordena o vetor.
+     */
+    private static long[] percentis(long[] latencias) {
+        Arrays.sort(latencias);
+        return new long[] {latencias[latencias.length / 2], latencias[(int) (latencias.length * 0.99)]};
+    }
+
+    /**
+     * ISBN-13 com prefixo 978 ou 979 e dígito verificador válido.
+     */
+    static String gerarIsbn(Random random) {
+        char[] digitos = new char[13];
+        digitos[0] = '9';
+        digitos[1] = '7';
+        digitos[2] = random.nextInt(4) == 0 ? '9' : '8';
+        for (int i = 3; i < 12; i++) {
+            digitos[i] = (char) ('0' + random.nextInt(10));
+        }
+        int soma = 0;
+        for (int i = 0; i < 12; i++) {
+            soma += (digitos[i] - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        digitos[12] = (char) ('0' + (10 - soma % 10) % 10);
+        return new String(digitos);
+    }
+}
@@ -1,334 +1,312 @@
-// Classe para representar um Livro
-class Livro {
-    String titulo;
-    String autor;
-    String isbn; // Usaremos ISBN como a chave para a Árvore B
-
-    public Livro(String titulo, String autor, String isbn) {
-        this.titulo = titulo;
-        this.autor = autor;
-        this.isbn = isbn;
+// Leitor dos arquivos do modo em lote: lê a entrada em blocos de 64 KB e separa cada linha
+// em campos por vírgula, sem Scanner nem expressões regulares. Um campo entre aspas pode
+// conter vírgulas, e "" dentro dele vira uma aspa; espaços em volta de campos sem aspas são
+// descartados. Linhas vazias e começadas por # são puladas.
+class LeitorLote {
+    private final java.io.InputStream entrada;
+    private final byte[] buffer = new byte[1 << 16];
+    private int posicao;
+    private int limite;
+    private byte[] campo = new byte[256];
+    private String[] campos = new String[4];
+    private int numCampos;
+    private int numLinha;
+
+    public LeitorLote(java.io.InputStream entrada) {
+        this.entrada = entrada;
     }
 
-    // Método para comparar dois livros pelo ISBN
-    // Retorna < 0 se este.isbn < outroLivro.isbn, > 0 se este.isbn > outroLivro.isbn, 0 se iguais
-    public int compararISBN(Livro outroLivro) {
-        return compareStrings(this.isbn, outroLivro.isbn);
+    public int numCampos() {
+        return numCampos;
     }
 
-    // Método auxiliar para comparar strings (para ISBN e título) sem usar String.compareTo
-    private static int compareStrings(String s1, String s2) {
-        int minLength = Math.min(s1.length(), s2.length());
-        for (int i = 0; i < minLength; i++) {
-            if (s1.charAt(i) < s2.charAt(i)) {
-                return -1;
-            } else if (s1.charAt(i) > s2.charAt(i)) {
-                return 1;
-            }
-        }
-        if (s1.length() < s2.length()) {
-            return -1;
-        } else if (s1.length() > s2.length()) {
-            return 1;
-        } else {
-            return 0;
-        }
-    }
-}
-
-// Classe para representar um nó da Árvore B
-class NoArvoreB {
-    Livro[] chaves; // Array para armazenar até 4 objetos Livro 
-    NoArvoreB[] filhos; // Array para armazenar até 5 filhos 
-    int numChaves; // Número atual de chaves no nó 
-    boolean ehFolha; // Indica se o nó é uma folha 
-
-    // Construtor
-    public NoArvoreB() {
-        chaves = new Livro[4]; // Array para armazenar até 4 chaves 
-        filhos = new NoArvoreB[5]; // Array para armazenar até 5 filhos 
-        numChaves = 0; // Número atual de chaves no nó 
-        ehFolha = true; // Indica se o nó é uma folha 
-
-        // Inicialização dos arrays (Livro e NoArvoreB são nulos por padrão em Java, mas manter a lógica)
-        for (int i = 0; i < 4; i++) {
-            chaves[i] = null;
-        }
-        for (int i = 0; i < 5; i++) {
-            filhos[i] = null;
-        }
+    public String campo(int indice) {
+        return campos[indice];
     }
 
-    // Método para verificar se o nó está cheio 
-    public boolean estaCheio() {
-        return numChaves == 4; // Retorne numChaves == 4 
+    // Número da linha atual no arquivo, a partir de 1
+    public int numLinha() {
+        return numLinha;
     }
 
-    // Método para inserir uma chave (Livro) em um nó folha 
-    public void inserirChave(Livro novoLivro) {
-        int i = numChaves - 1; // inteiro i = numChaves - 1 
-
-        // Move as chaves maiores para a direita 
-        while (i >= 0 && chaves[i].compararISBN(novoLivro) > 0) { // enquanto i >= 0 e chaves[i] > chave faca 
-            chaves[i + 1] = chaves[i]; // chaves[i + 1] = chaves[i] 
-            i = i - 1; // i = i - 1 
-        }
-
-        // Insere a nova chave 
-        chaves[i + 1] = novoLivro; // chaves[i + 1] = chave 
-        numChaves = numChaves + 1; // numChaves = numChaves + 1 
-    }
-
-    // Método para dividir um nó filho cheio 
-    public NoArvoreB dividirFilho(int indice) {
-        NoArvoreB novoNo = new NoArvoreB(); // NoArvoreB novoNo = novo NoArvoreB() 
-        NoArvoreB filhoCheio = filhos[indice]; // NoArvoreB filhoCheio = filhos[indice] 
-
-        novoNo.ehFolha = filhoCheio.ehFolha; // novoNo.ehFolha = filhoCheio.ehFolha 
-        novoNo.numChaves = 2; // novoNo.numChaves = 2 
-
-        // Move as últimas 2 chaves (Livros) para o novo nó 
-        for (int i = 0; i < 2; i++) { // para i de 0 ate 1 faca 
-            novoNo.chaves[i] = filhoCheio.chaves[i + 2]; // novoNo.chaves[i] = filhoCheio.chaves[i + 2] 
-        }
-
-        // Se não é folha, move os filhos também 
-        if (!filhoCheio.ehFolha) { // se nao filhoCheio.ehFolha entao 
-            for (int i = 0; i < 3; i++) { // para i de 0 ate 2 faca 
-                novoNo.filhos[i] = filhoCheio.filhos[i + 2]; // novoNo.filhos[i] = filhoCheio.filhos[i + 2] 
+    // Avança para a próxima linha com conteúdo; retorna falso no fim da entrada
+    public boolean proximaLinha() throws java.io.IOException {
+        while (true) {
+            int c = lerByte();
+            if (c < 0) {
+                return false;
+            }
+            numLinha++;
+            // Marca de ordem de bytes do UTF-8 no início do arquivo
+            if (numLinha == 1 && c == 0xEF && lerByte() == 0xBB && lerByte() == 0xBF) {
+                c = lerByte();
+            }
+            numCampos = 0;
+            if (c == '#') {
+                while (c >= 0 && c != '\n') {
+                    c = lerByte();
+                }
+                continue;
+            }
+            lerCampos(c);
+            if (numCampos > 1 || campos[0].length() > 0) {
+                return true;
             }
         }
-
-        filhoCheio.numChaves = 2; // filhoCheio.numChaves = 2 
-
-        // Move os filhos do nó atual para abrir espaço 
-        for (int i = numChaves; i >= indice + 1; i--) { // para i de numChaves ate indice + 1 faca 
-            filhos[i + 1] = filhos[i]; // filhos[i + 1] = filhos[i] 
-        }
-
-        filhos[indice + 1] = novoNo; // filhos[indice + 1] = novoNo 
-
-        // Move as chaves para abrir espaço para a chave promovida 
-        for (int i = numChaves - 1; i >= indice; i--) { // para i de numChaves - 1 ate indice faca 
-            chaves[i + 1] = chaves[i]; // chaves[i + 1] = chaves[i] 
-        }
-
-        // Promove a chave do meio 
-        chaves[indice] = filhoCheio.chaves[2]; // chaves[indice] = filhoCheio.chaves[2] 
-        numChaves = numChaves + 1; // numChaves = numChaves + 1 
-
-        return novoNo; // retorne novoNo 
     }
 
-    // Método para exibir as chaves (Livros) do nó 
-    public void exibirNo() {
-        System.out.print("["); // escreva("[") 
-        for (int i = 0; i < numChaves; i++) { // para i de 0 ate numChaves - 1 faca 
-            System.out.print(chaves[i].isbn + " (" + chaves[i].titulo + ")"); // escreva (chaves[i]) 
-            if (i < numChaves - 1) { // se i < numChaves - 1 entao 
-                System.out.print(", "); // escreva(", ") 
+    // Lê os campos da linha a partir do byte c, já lido, até o fim da linha ou da entrada
+    private void lerCampos(int c) throws java.io.IOException {
+        while (true) {
+            while (c == ' ' || c == '\t') {
+                c = lerByte();
             }
+            int tamanho = 0;
+            if (c == '"') {
+                c = lerByte();
+                while (c >= 0) {
+                    if (c == '"') {
+                        c = lerByte();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    tamanho = guardar(tamanho, c);
+                    c = lerByte();
+                }
+                // Descarta o que vier entre a aspa de fechamento e a próxima vírgula
+                while (c >= 0 && c != ',' && c != '\n') {
+                    c = lerByte();
+                }
+                adicionarCampo(tamanho);
+            } else {
+                int semEspacos = 0;
+                while (c >= 0 && c != ',' && c != '\n') {
+                    tamanho = guardar(tamanho, c);
+                    if (c != ' ' && c != '\t' && c != '\r') {
+                        semEspacos = tamanho;
+                    }
+                    c = lerByte();
+                }
+                adicionarCampo(semEspacos);
+            }
+            if (c != ',') {
+                return;
+            }
+            c = lerByte();
         }
-        System.out.print("]"); // escreva("]") 
-    }
-}
-
-// Custom List implementation to avoid java.util.ArrayList (if strictly adhering to "no native libraries")
-class ListaLivros {
-    private Livro[] elementos;
-    private int tamanhoAtual;
-    private static final int CAPACIDADE_INICIAL = 10;
-
-    public ListaLivros() {
-        elementos = new Livro[CAPACIDADE_INICIAL];
-        tamanhoAtual = 0;
     }
 
-    public void adicionar(Livro livro) {
-        if (tamanhoAtual == elementos.length) {
-            // Aumentar capacidade (simples duplicação)
-            Livro[] novoArray = new Livro[elementos.length * 2];
-            for (int i = 0; i < elementos.length; i++) {
-                novoArray[i] = elementos[i];
-            }
-            elementos = novoArray;
+    private int guardar(int tamanho, int c) {
+        if (tamanho == campo.length) {
+            byte[] maior = new byte[campo.length * 2];
+            System.arraycopy(campo, 0, maior, 0, tamanho);
+            campo = maior;
         }
-        elementos[tamanhoAtual++] = livro;
+        campo[tamanho] = (byte) c;
+        return tamanho + 1;
     }
 
-    public Livro obter(int indice) {
-        if (indice < 0 || indice >= tamanhoAtual) {
-            // Poderia lançar uma exceção, mas para simplicidade, retorna nulo
-            return null;
+    private void adicionarCampo(int tamanho) {
+        if (numCampos == campos.length) {
+            String[] maior = new String[campos.length * 2];
+            System.arraycopy(campos, 0, maior, 0, numCampos);
+            campos = maior;
         }
-        return elementos[indice];
+        campos[numCampos++] = new String(campo, 0, tamanho, java.nio.charset.StandardCharsets.UTF_8);
     }
 
-    public void definir(int indice, Livro livro) {
-        if (indice >= 0 && indice < tamanhoAtual) {
-            elementos[indice] = livro;
+    private int lerByte() throws java.io.IOException {
+        if (posicao == limite) {
+            limite = entrada.read(buffer, 0, buffer.length);
+            posicao = 0;
+            if (limite <= 0) {
+                limite = 0;
+                return -1;
+            }
         }
+        return buffer[posicao++] & 0xFF;
     }
 
-    public int tamanho() {
-        return tamanhoAtual;
+    public void fechar() throws java.io.IOException {
+        entrada.close();
     }
 }
 
-
-// Classe principal da Árvore B
-class ArvoreB {
-    NoArvoreB raiz; // NoArvoreB raiz 
-
-    // Construtor 
-    public ArvoreB() {
-        raiz = new NoArvoreB(); // raiz = novo NoArvoreB() 
+// Modo não interativo do ArvoreB_Exemplo. Um arquivo de importação tem uma linha
+// titulo,autor,isbn por livro (a primeira pode ser esse cabeçalho); um arquivo de comandos
+// tem uma operação por linha: inserir,titulo,autor,isbn / buscar,isbn / remover,isbn.
+// ISBNs que já estão no catálogo são contados como repetidos e não entram de novo. A saída
+// de cada operação vai para um buffer de 64 KB, gravado quando enche e no fim, e a execução
+// termina com as estatísticas de vazão.
+class ModoLote {
+    private final ArvoreB arvore;
+    private final java.io.PrintWriter saida;
+
+    private long linhasImportadas;
+    private long comandos;
+    private long inseridos;
+    private long insercoesPorComando;
+    private long repetidos;
+    private long invalidas;
+    private long buscas;
+    private long encontrados;
+    private long remocoes;
+    private long removidos;
+    private long nanosLeitura;
+    private long nanosCarga;
+    private long nanosComandos;
+
+    public ModoLote(ArvoreB arvore) {
+        this.arvore = arvore;
+        this.saida = new java.io.PrintWriter(new java.io.BufferedWriter(
+                new java.io.OutputStreamWriter(System.out, java.nio.charset.StandardCharsets.UTF_8), 1 << 16), false);
     }
 
-    // Método público para inserir uma chave (Livro) 
-    public void inserir(Livro novoLivro) {
-        if (raiz.estaCheio()) { // se raiz.estaCheio() entao 
-            NoArvoreB novaRaiz = new NoArvoreB(); // NoArvoreB novaRaiz = novo NoArvoreB() 
-            novaRaiz.ehFolha = false; // novaRaiz.ehFolha = falso 
-            novaRaiz.filhos[0] = raiz; // novaRaiz.filhos[0] = raiz 
-            novaRaiz.dividirFilho(0); // novaRaiz.dividirFilho(0) 
-            raiz = novaRaiz; // raiz = novaRaiz 
-        }
-        inserirNaoCheio(raiz, novoLivro); // inserirNaoCheio(raiz, chave) 
+    // "-" lê da entrada padrão
+    private static LeitorLote abrir(String arquivo) throws java.io.IOException {
+        return new LeitorLote(arquivo.equals("-") ? System.in : new java.io.FileInputStream(arquivo));
     }
 
-    // Método auxiliar para inserir em nó não cheio 
-    private void inserirNaoCheio(NoArvoreB no, Livro novoLivro) {
-        int i = no.numChaves - 1; // inteiro i = no.numChaves - 1 
-
-        if (no.ehFolha) { // se no.ehFolha entao 
-            no.inserirChave(novoLivro); // no.inserirChave(chave) 
-        } else {
-            // Encontra o filho onde a chave deve ser inserida 
-            while (i >= 0 && novoLivro.compararISBN(no.chaves[i]) < 0) { // enquanto i >= 0 e chave < no.chaves[i] faca 
-                i = i - 1; // i = i - 1 
+    // Lê o arquivo inteiro e, se a árvore estiver vazia, monta as duas árvores de baixo para
+    // cima (ArvoreB.construirEmLote); senão insere livro a livro
+    public void importar(String arquivo) throws java.io.IOException {
+        long inicio = System.nanoTime();
+        LeitorLote leitor = abrir(arquivo);
+        ListaLivros lidos = new ListaLivros();
+        boolean primeira = true;
+        while (leitor.proximaLinha()) {
+            linhasImportadas++;
+            if (primeira && leitor.numCampos() == 3 && ehCabecalho(leitor.campo(0))) {
+                primeira = false;
+                continue;
             }
-            i = i + 1; // i = i + 1 
-
-            // Se o filho está cheio, divide-o 
-            if (no.filhos[i].estaCheio()) { // se no.filhos[i].estaCheio() entao 
-                no.dividirFilho(i); // no.dividirFilho(i) 
-
-                if (novoLivro.compararISBN(no.chaves[i]) > 0) { // se chave > no.chaves[i] entao 
-                    i = i + 1; // i = i + 1 
-                }
+            primeira = false;
+            if (leitor.numCampos() != 3 || leitor.campo(2).length() == 0) {
+                linhaInvalida(arquivo, leitor, "esperado titulo,autor,isbn");
+                continue;
             }
-            inserirNaoCheio(no.filhos[i], novoLivro); // inserirNaoCheio (no.filhos[i], chave) 
-        }
-    }
-
-    // Método para buscar uma chave (ISBN) 
-    public Livro buscar(String isbnBuscado) {
-        return buscarNo(raiz, isbnBuscado); // retorne buscarNo(raiz, chave) 
-    }
-
-    // Método auxiliar para buscar em um nó 
-    private Livro buscarNo(NoArvoreB no, String isbnBuscado) {
-        int i = 0; // inteiro i = 0 
-
-        // Encontra a primeira chave maior ou igual à chave procurada 
-        while (i < no.numChaves && Livro.compareStrings(isbnBuscado, no.chaves[i].isbn) > 0) { // enquanto i < no.numChaves e chave > no.chaves[i] faca 
-            i = i + 1; // i = i + 1 
+            lidos.adicionar(new Livro(leitor.campo(0), leitor.campo(1), leitor.campo(2)));
         }
-
-        // Se encontrou a chave 
-        if (i < no.numChaves && Livro.compareStrings(isbnBuscado, no.chaves[i].isbn) == 0) { // se i < no.numChaves e chave == no.chaves[i] entao 
-            return no.chaves[i]; // retorne verdadeiro 
-        }
-
-        // Se é folha e não encontrou, a chave não existe 
-        if (no.ehFolha) { // se no.ehFolha entao 
-            return null; // retorne falso 
+        leitor.fechar();
+        nanosLeitura += System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        if (arvore.tamanho() == 0) {
+            int carregados = arvore.construirEmLote(lidos.paraArray(), lidos.tamanho());
+            inseridos += carregados;
+            repetidos += lidos.tamanho() - carregados;
+        } else {
+            for (int i = 0; i < lidos.tamanho(); i++) {
+                inserirSeNovo(lidos.obter(i));
+            }
         }
-
-        // Busca recursivamente no filho apropriado 
-        return buscarNo(no.filhos[i], isbnBuscado); // retorne buscarNo (no.filhos[i], chave) 
+        nanosCarga += System.nanoTime() - inicio;
     }
 
-    // Método para exibir a árvore em ordem (por ISBN, mas depois a lista será ordenada por título)
-    public void exibirEmOrdemPorTitulo() {
-        System.out.println("Livros em ordem alfabética por título:");
-        ListaLivros listaDeLivros = new ListaLivros();
-
-        // Percorre a árvore e coleta todos os livros
-        coletarLivrosEmOrdem(raiz, listaDeLivros);
-
-        // Ordena a lista de livros por título (usando Bubble Sort implementado manualmente)
-        ordenarListaLivrosPorTitulo(listaDeLivros);
-
-        // Exibe os livros ordenados
-        for (int i = 0; i < listaDeLivros.tamanho(); i++) {
-            Livro livro = listaDeLivros.obter(i);
-            System.out.println("Título: " + livro.titulo + ", Autor: " + livro.autor + ", ISBN: " + livro.isbn);
-        }
+    private static boolean ehCabecalho(String campo) {
+        return campo.equalsIgnoreCase("titulo") || campo.equalsIgnoreCase("título");
     }
 
-    // Método auxiliar para coletar livros (percorre em ordem de ISBN)
-    private void coletarLivrosEmOrdem(NoArvoreB no, ListaLivros lista) {
-        int i;
-        for (i = 0; i < no.numChaves; i++) {
-            if (!no.ehFolha) { // se nao no.ehFolha entao 
-                coletarLivrosEmOrdem(no.filhos[i], lista); // exibirEmOrdemNo(no.filhos[i]) 
+    // Aplica os comandos na ordem do arquivo, escrevendo uma linha de resultado por comando
+    public void executarComandos(String arquivo) throws java.io.IOException {
+        long inicio = System.nanoTime();
+        LeitorLote leitor = abrir(arquivo);
+        while (leitor.proximaLinha()) {
+            comandos++;
+            String comando = leitor.campo(0);
+            if (comando.equals("inserir") && leitor.numCampos() == 4 && leitor.campo(3).length() > 0) {
+                Livro livro = new Livro(leitor.campo(1), leitor.campo(2), leitor.campo(3));
+                if (inserirSeNovo(livro)) {
+                    insercoesPorComando++;
+                    saida.println("inserido: " + livro.isbn);
+                } else {
+                    saida.println("repetido: " + livro.isbn);
+                }
+            } else if (comando.equals("buscar") && leitor.numCampos() == 2) {
+                buscas++;
+                Livro livro = arvore.buscar(leitor.campo(1));
+                if (livro != null) {
+                    encontrados++;
+                    saida.println("encontrado: " + livro.isbn + " | " + livro.titulo + " | " + livro.autor);
+                } else {
+                    saida.println("não encontrado: " + leitor.campo(1));
+                }
+            } else if (comando.equals("remover") && leitor.numCampos() == 2) {
+                remocoes++;
+                Livro livro = arvore.remover(leitor.campo(1));
+                if (livro != null) {
+                    removidos++;
+                    saida.println("removido: " + livro.isbn);
+                } else {
+                    saida.println("não encontrado: " + leitor.campo(1));
+                }
+            } else {
+                linhaInvalida(arquivo, leitor, "comando desconhecido ou com campos a mais ou a menos");
             }
-            lista.adicionar(no.chaves[i]);
-        }
-        if (!no.ehFolha) { // se nao no.ehFolha entao 
-            coletarLivrosEmOrdem(no.filhos[i], lista); // exibirEmOrdemNo(no.filhos[i]) 
         }
+        leitor.fechar();
+        nanosComandos += System.nanoTime() - inicio;
     }
 
-    // Implementação de Bubble Sort para ordenar a ListaLivros por título
-    private void ordenarListaLivrosPorTitulo(ListaLivros lista) {
-        int n = lista.tamanho();
-        for (int i = 0; i < n - 1; i++) {
-            for (int j = 0; j < n - i - 1; j++) {
-                if (Livro.compareStrings(lista.obter(j).titulo, lista.obter(j + 1).titulo) > 0) {
-                    // Trocar Livros
-                    Livro temp = lista.obter(j);
-                    lista.definir(j, lista.obter(j + 1));
-                    lista.definir(j + 1, temp);
-                }
-            }
+    private boolean inserirSeNovo(Livro livro) {
+        if (!arvore.inserir(livro)) {
+            repetidos++;
+            return false;
         }
+        inseridos++;
+        return true;
     }
 
-
-    // Método para exibir a estrutura da árvore 
-    public void exibirEstrutura() {
-        System.out.println("Estrutura da Árvore B:"); // escreva("Estrutura da Árvore B:\n") 
-        exibirEstruturaNo(raiz, 0); // exibirEstruturaNo(raiz, 0) 
+    private void linhaInvalida(String arquivo, LeitorLote leitor, String motivo) {
+        invalidas++;
+        saida.println(arquivo + ":" + leitor.numLinha() + ": linha ignorada (" + motivo + ")");
     }
 
-    // Método auxiliar para exibir estrutura 
-    private void exibirEstruturaNo(NoArvoreB no, int nivel) {
-        // Indentação baseada no nível 
-        for (int i = 0; i < nivel; i++) { // para i de 0 ate nivel faca 
-            System.out.print("  "); // escreva(" ") 
+    // Escreve as estatísticas e esvazia o buffer de saída
+    public void encerrar(long nanosTotal) {
+        long linhas = linhasImportadas + comandos;
+        saida.println("=== Lote concluído ===");
+        saida.println("Linhas processadas: " + linhas + " (inválidas: " + invalidas + ")");
+        saida.println("Livros inseridos: " + inseridos + " (ISBNs repetidos: " + repetidos + ")");
+        saida.println("Buscas: " + buscas + " (encontrados: " + encontrados + ")");
+        saida.println("Remoções: " + remocoes + " (removidos: " + removidos + ")");
+        if (linhasImportadas > 0) {
+            saida.println(String.format("Leitura da importação: %.1f ms (%.0f linhas/s)",
+                    nanosLeitura / 1e6, porSegundo(linhasImportadas, nanosLeitura)));
+            saida.println(String.format("Carga na árvore: %.1f ms (%.0f livros/s)",
+                    nanosCarga / 1e6, porSegundo(inseridos - insercoesPorComando, nanosCarga)));
         }
-
-        no.exibirNo(); // no.exibirNo() 
-        System.out.println(); // escreva("\n") 
-
-        // Se não é folha, exibe os filhos 
-        if (!no.ehFolha) { // se nao no.ehFolha entao 
-            for (int i = 0; i <= no.numChaves; i++) { // para i de 0 ate no.numChaves faca 
-                exibirEstruturaNo(no.filhos[i], nivel + 1); // exibirEstruturaNo (no.filhos [i], nivel + 1) 
-            }
+        if (comandos > 0) {
+            saida.println(String.format("Comandos: %.1f ms (%.0f comandos/s)",
+                    nanosComandos / 1e6, porSegundo(comandos, nanosComandos)));
         }
+        saida.println(String.format("Total: %.1f ms (%.0f linhas/s)", nanosTotal / 1e6, porSegundo(linhas, nanosTotal)));
+        saida.println("Árvore: " + arvore.tamanho() + " livros, t = " + arvore.t + ", altura " + arvore.altura());
+        saida.flush();
+    }
+
+    private static double porSegundo(long quantidade, long nanos) {
+        return nanos == 0 ? 0 : quantidade * 1e9 / nanos;
     }
 }
 
 // Programa principal
 public class ArvoreB_Exemplo {
+    // Quantos livros as buscas por prefixo mostram, como as sugestões de uma caixa de busca
+    static final int RESULTADOS_POR_PREFIXO = 10;
 
     public static void main(String[] args) {
         // Declaração de variáveis
-        ArvoreB arvore = new ArvoreB(); // arvore = novo ArvoreB() 
+        // O grau mínimo pode ser passado como primeiro argumento: java ArvoreB_Exemplo 3
+        boolean temGrau = args.length > 0 && !args[0].startsWith("--");
+        ArvoreB arvore = temGrau ? new ArvoreB(Integer.parseInt(args[0])) : new ArvoreB(); // arvore = novo ArvoreB(t) 
+
+        // Com arquivos na linha de comando, roda em lote e não abre o menu
+        if (args.length > (temGrau ? 1 : 0)) {
+            System.exit(executarLote(arvore, args, temGrau ? 1 : 0));
+        }
+
         java.util.Scanner scanner = new java.util.Scanner(System.in); // Usar Scanner para entrada
 
         int opcao; // inteiro opcao 
@@ -337,12 +315,17 @@ public class ArvoreB_Exemplo {
 
         // Menu principal 
         do {
-            System.out.println("\n=== ÁRVORE B (até 4 chaves por nó) ==="); // escreva("\n=== ÁRVORE B (até 4 chaves por nó) ===\n") 
+            System.out.println("\n=== ÁRVORE B (t = " + arvore.t + ", até " + (2 * arvore.t - 1) + " chaves por nó) ==="); // escreva("\n=== ÁRVORE B (até 2t - 1 chaves por nó) ===\n") 
             System.out.println("1. Inserir livro"); // escreva ("1. Inserir chave\n") 
             System.out.println("2. Buscar livro por ISBN"); // escreva ("2. Buscar chave\n") 
             System.out.println("3. Listar todos os livros (por título)"); // escreva ("3. Exibir em ordem\n") 
             System.out.println("4. Exibir estrutura da árvore"); // escreva ("4. Exibir estrutura\n") 
-            System.out.println("5. Sair"); // escreva ("5. Sair\n") 
+            System.out.println("5. Listar livros por faixa de título");
+            System.out.println("6. Listar livros por página (por título)");
+            System.out.println("7. Buscar livros por prefixo do título");
+            System.out.println("8. Buscar livros por prefixo do ISBN");
+            System.out.println("9. Remover livro por ISBN");
+            System.out.println("10. Sair"); // escreva ("10. Sair\n") 
             System.out.print("Escolha uma opção: "); // escreva ("Escolha uma opção: ") 
 
             opcao = scanner.nextInt(); // leia(opcao) 
@@ -357,8 +340,11 @@ public class ArvoreB_Exemplo {
                     System.out.print("Digite o ISBN do livro: ");
                     String isbn = scanner.nextLine();
                     Livro novoLivro = new Livro(titulo, autor, isbn);
-                    arvore.inserir(novoLivro); // arvore.inserir(chave) 
-                    System.out.println("Livro '" + titulo + "' (ISBN: " + isbn + ") inserido com sucesso!"); // escreva ("Chave" + chave + " inserida com sucesso!\n") 
+                    if (arvore.inserir(novoLivro)) { // arvore.inserir(chave) 
+                        System.out.println("Livro '" + titulo + "' (ISBN: " + isbn + ") inserido com sucesso!"); // escreva ("Chave" + chave + " inserida com sucesso!\n") 
+                    } else {
+                        System.out.println("Já existe um livro com o ISBN " + isbn + " na árvore; nada foi inserido.");
+                    }
                     break;
                 case 2:
                     System.out.print("Digite o ISBN do livro a ser buscado: "); // escreva("Digite a chave a ser buscada: ") 
@@ -381,14 +367,95 @@ public class ArvoreB_Exemplo {
                     arvore.exibirEstrutura(); // arvore.exibirEstrutura() 
                     break;
                 case 5:
+                    System.out.print("Título inicial: ");
+                    String de = scanner.nextLine();
+                    System.out.print("Título final: ");
+                    String ate = scanner.nextLine();
+                    ListaLivros faixa = arvore.buscarPorFaixaDeTitulo(de, ate);
+                    System.out.println(faixa.tamanho() + " livro(s) com título entre '" + de + "' e '" + ate + "':");
+                    for (int i = 0; i < faixa.tamanho(); i++) {
+                        ArvoreB.exibirLivro(faixa.obter(i));
+                    }
+                    break;
+                case 6:
+                    System.out.print("Livros por página: ");
+                    int tamanhoPagina = scanner.nextInt();
+                    System.out.print("Número da página: ");
+                    int numeroPagina = scanner.nextInt();
+                    scanner.nextLine(); // Consumir a nova linha
+                    if (tamanhoPagina < 1 || numeroPagina < 1) {
+                        System.out.println("Página e tamanho devem ser pelo menos 1.");
+                        break;
+                    }
+                    int paginas = (arvore.tamanho() + tamanhoPagina - 1) / tamanhoPagina;
+                    ListaLivros pagina = arvore.paginaPorTitulo(numeroPagina, tamanhoPagina);
+                    System.out.println("Página " + numeroPagina + " de " + paginas + ":");
+                    for (int i = 0; i < pagina.tamanho(); i++) {
+                        ArvoreB.exibirLivro(pagina.obter(i));
+                    }
+                    break;
+                case 7:
+                case 8:
+                    System.out.print(opcao == 7 ? "Início do título: " : "Início do ISBN: ");
+                    String prefixo = scanner.nextLine();
+                    ListaLivros encontrados = opcao == 7
+                            ? arvore.buscarPorPrefixoDeTitulo(prefixo, RESULTADOS_POR_PREFIXO)
+                            : arvore.buscarPorPrefixoDeIsbn(prefixo, RESULTADOS_POR_PREFIXO);
+                    if (encontrados.tamanho() == 0) {
+                        System.out.println("Nenhum livro começa com '" + prefixo + "'.");
+                    } else {
+                        System.out.println("Primeiros " + encontrados.tamanho() + " livro(s) começando com '" + prefixo + "':");
+                    }
+                    for (int i = 0; i < encontrados.tamanho(); i++) {
+                        ArvoreB.exibirLivro(encontrados.obter(i));
+                    }
+                    break;
+                case 9:
+                    System.out.print("Digite o ISBN do livro a ser removido: ");
+                    chaveISBN = scanner.nextLine();
+                    Livro removido = arvore.remover(chaveISBN);
+                    if (removido != null) {
+                        System.out.println("Livro '" + removido.titulo + "' (ISBN: " + removido.isbn + ") removido com sucesso!");
+                    } else {
+                        System.out.println("Livro com ISBN " + chaveISBN + " não encontrado na árvore!");
+                    }
+                    break;
+                case 10:
                     System.out.println("Encerrando programa..."); // escreva("Encerrando programa...\n") 
                     break;
                 default:
                     System.out.println("Opção inválida! Tente novamente."); // escreva("Opção inválida! Tente novamente.\n") 
                     break;
             }
-        } while (opcao != 5); // ate_que opcao == 5 
+        } while (opcao != 10); // ate_que opcao == 10 
 
         scanner.close(); // Fechar o scanner
     }
+
+    // Modo em lote: java ArvoreB_Exemplo [t] (--importar arquivo.csv | --comandos arquivo.txt)...
+    // Os arquivos são aplicados na ordem dada; "-" lê da entrada padrão. Retorna o código de saída
+    static int executarLote(ArvoreB arvore, String[] args, int primeiro) {
+        long inicio = System.nanoTime();
+        ModoLote lote = new ModoLote(arvore);
+        for (int i = primeiro; i < args.length; i += 2) {
+            boolean importar = args[i].equals("--importar");
+            if (!importar && !args[i].equals("--comandos") || i + 1 == args.length) {
+                System.err.println("Uso: java ArvoreB_Exemplo [t] (--importar arquivo.csv | --comandos arquivo.txt)...");
+                return 2;
+            }
+            try {
+                if (importar) {
+                    lote.importar(args[i + 1]);
+                } else {
+                    lote.executarComandos(args[i + 1]);
+                }
+            } catch (java.io.IOException e) {
+                lote.encerrar(System.nanoTime() - inicio);
+                System.err.println("Erro ao ler " + args[i + 1] + ": " + e.getMessage());
+                return 1;
+            }
+        }
+        lote.encerrar(System.nanoTime() - inicio);
+        return 0;
+    }
 }
\ No newline at end of file
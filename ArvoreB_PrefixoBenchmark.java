@@ -0,0 +1,110 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Latência das buscas por prefixo da ArvoreB (ArvoreB.java), por título e por ISBN,
+ * em catálogos gerados de tamanhos crescentes. O mesmo catálogo vai crescendo até cada
+ * tamanho pedido e, em cada parada, os prefixos são tirados de livros já inseridos (cada
+ * consulta tem pelo menos um resultado). Cada consulta devolve os primeiros K livros; como a
+ * busca desce até o início da faixa e para depois de K livros, p50 e p99 devem ficar
+ * praticamente iguais de um tamanho para o outro.
+ *
+ * Compilar junto com as classes da Árvore B e o ArvoreB_Benchmark: javac *.java
+ * Uso: java -Xmx4g ArvoreB_PrefixoBenchmark [tamanhos separados por vírgula] [K] [consultas por linha]
+ */
+public class ArvoreB_PrefixoBenchmark {
+    private static final String[] PALAVRAS = {
+        "A", "O", "As", "Os", "Um", "Uma", "Casa", "Mar", "Sol", "Noite", "Cidade", "Vento",
+        "Segredo", "Caminho", "Jardim", "Sombra", "Memória", "Rio", "Tempo", "Viagem", "Luz",
+        "Silêncio", "Fogo", "Ilha", "Estrela", "Canção", "Guerra", "Amor", "Pedra", "Livro",
+        "Montanha", "Floresta", "Sonho", "Janela", "Porto", "Deserto", "Inverno", "Verão",
+        "Carta", "Espelho", "Relógio", "Labirinto", "Horizonte", "Ponte", "Chuva", "Tarde"
+    };
+    private static final String[] LIGACOES = {"de", "do", "da", "dos", "das", "e", "sem", "sob"};
+
+    // Tamanhos de prefixo medidos: os curtos têm muitos livros na faixa, os longos poucos
+    private static final int[] PREFIXOS_TITULO = {1, 3, 6, 10};
+    private static final int[] PREFIXOS_ISBN = {3, 5, 7, 10};
+
+    public static void main(String[] args) {
+        String[] tamanhos = (args.length > 0 ? args[0] : "100000,1000000,3000000").split(",");
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int consultas = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+        Random random = new Random(42);
+        String[] autores = new String[1000];
+        for (int i = 0; i < autores.length; i++) {
+            autores[i] = "Autor " + i;
+        }
+
+        System.out.println("K: " + k + ", consultas por linha: " + consultas);
+        System.out.println(String.format("%-8s | %-7s | %-8s | %-10s | %-10s | %-10s",
+                "livros", "campo", "prefixo", "p50 (ns)", "p99 (ns)", "resultados"));
+        ArvoreB arvore = new ArvoreB();
+        Livro[] livros = new Livro[Integer.parseInt(tamanhos[tamanhos.length - 1].trim())];
+        int inseridos = 0;
+        String[] prefixos = new String[consultas];
+        long[] latencias = new long[consultas];
+        for (String tamanho : tamanhos) {
+            int alvo = Integer.parseInt(tamanho.trim());
+            while (inseridos < alvo) {
+                Livro livro = new Livro(gerarTitulo(random), autores[random.nextInt(autores.length)],
+                        ArvoreB_Benchmark.gerarIsbn(random));
+                if (arvore.inserir(livro)) {
+                    livros[inseridos++] = livro;
+                }
+            }
+            // A primeira passada em cada tamanho só aquece o JIT
+            for (int rodada = 0; rodada < 2; rodada++) {
+                for (int tamanhoPrefixo : PREFIXOS_TITULO) {
+                    medir(arvore, livros, inseridos, true, tamanhoPrefixo, k, random, prefixos, latencias, rodada == 1);
+                }
+                for (int tamanhoPrefixo : PREFIXOS_ISBN) {
+                    medir(arvore, livros, inseridos, false, tamanhoPrefixo, k, random, prefixos, latencias, rodada == 1);
+                }
+            }
+        }
+    }
+
+    private static void medir(ArvoreB arvore, Livro[] livros, int inseridos, boolean porTitulo, int tamanhoPrefixo,
+                              int k, Random random, String[] prefixos, long[] latencias, boolean imprimir) {
+        for (int i = 0; i < prefixos.length; i++) {
+            String origem = porTitulo ? livros[random.nextInt(inseridos)].titulo : livros[random.nextInt(inseridos)].isbn;
+            prefixos[i] = origem.substring(0, Math.min(tamanhoPrefixo, origem.length()));
+        }
+        long resultados = 0;
+        for (int i = 0; i < prefixos.length; i++) {
+            long inicio = System.nanoTime();
+            ListaLivros encontrados = porTitulo
+                    ? arvore.buscarPorPrefixoDeTitulo(prefixos[i], k)
+                    : arvore.buscarPorPrefixoDeIsbn(prefixos[i], k);
+            latencias[i] = System.nanoTime() - inicio;
+            if (encontrados.tamanho() == 0) {
+                throw new IllegalStateException("Prefixo sem resultados: " + prefixos[i]);
+            }
+            resultados += encontrados.tamanho();
+        }
+        if (imprimir) {
+            Arrays.sort(latencias);
+            System.out.println(String.format("%-8d | %-7s | %-8d | %-10d | %-10d | %-10.1f",
+                    inseridos, porTitulo ? "título" : "ISBN", tamanhoPrefixo, latencias[latencias.length / 2],
+                    latencias[(int) (latencias.length * 0.99)], (double) resultados / prefixos.length));
+        }
+    }
+
+    /**
+     * Título de uma a quatro palavras, como "Segredo do Mar" ou "Ponte sob Chuva".
+     */
+    private static String gerarTitulo(Random random) {
+        StringBuilder titulo = new StringBuilder(PALAVRAS[random.nextInt(PALAVRAS.length)]);
+        int palavras = 1 + random.nextInt(4);
+        for (int i = 1; i < palavras; i++) {
+            titulo.append(' ');
+            if (random.nextBoolean()) {
+                titulo.append(LIGACOES[random.nextInt(LIGACOES.length)]).append(' ');
+            }
+            titulo.append(PALAVRAS[random.nextInt(PALAVRAS.length)]);
+        }
+        return titulo.toString();
+    }
+}
@@ -0,0 +1,105 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Bytes alocados por operação no caminho de escrita da BPlusTree (com e sem copy-on-write) e
+ * da BStarTree, medidos pelo ThreadMXBean da própria thread. Os produtos são criados antes da
+ * medição, então o que sobra é o custo da árvore: nós novos em splits e, no modo
+ * copy-on-write, as cópias do caminho. A coluna "nós/1000 ops" ajuda a separar um do outro.
+ *
+ * Uso: java AllocationBenchmark [produtos iniciais] [operações medidas] [ordem]
+ */
+public class AllocationBenchmark {
+
+    public static void main(String[] args) {
+        int initial = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int order = args.length > 2 ? Integer.parseInt(args[2]) : NodeOrder.tuned();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("A JVM não mede memória alocada por thread");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int[] ids = new int[initial + ops];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        Random random = new Random(11);
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        Produto[] products = new Produto[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            products[i] = new Produto(ids[i], "Produto " + ids[i], "Categoria " + (ids[i] % 50));
+        }
+
+        System.out.println("Produtos iniciais: " + initial + ", operações: " + ops + ", ordem: " + order);
+        System.out.println(String.format("%-7s | %-8s | %-12s | %-10s | %-12s",
+                "Árvore", "operação", "ops/s", "bytes/op", "nós/1000 ops"));
+        // A primeira rodada só aquece o JIT
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            run("B+", new BPlusTree(order), null, products, initial, ops, threads, print);
+            run("B+ COW", new BPlusTree(order, true), null, products, initial, ops, threads, print);
+            run("B*", null, new BStarTree(order), products, initial, ops, threads, print);
+        }
+    }
+
+    private static void run(String name, BPlusTree plusTree, BStarTree starTree, Produto[] products,
+                            int initial, int ops, com.sun.management.ThreadMXBean threads, boolean print) {
+        TreeStats stats = plusTree != null ? plusTree.getStats() : starTree.getStats();
+        for (int i = 0; i < initial; i++) {
+            insert(plusTree, starTree, products[i]);
+        }
+
+        long nodesBefore = stats.refreshShape().getNodeCount();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = initial; i < initial + ops; i++) {
+            insert(plusTree, starTree, products[i]);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        long nodes = stats.refreshShape().getNodeCount() - nodesBefore;
+        if (print) {
+            print(name, "insert", ops, elapsed, bytes, nodes);
+        }
+
+        nodesBefore = stats.refreshShape().getNodeCount();
+        bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = initial; i < initial + ops; i++) {
+            int id = products[i].getId();
+            if (plusTree != null) {
+                plusTree.delete(id);
+            } else {
+                starTree.delete(id);
+            }
+        }
+        elapsed = System.nanoTime() - start;
+        bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        nodes = stats.refreshShape().getNodeCount() - nodesBefore;
+        if (print) {
+            print(name, "delete", ops, elapsed, bytes, nodes);
+        }
+    }
+
+    private static void insert(BPlusTree plusTree, BStarTree starTree, Produto product) {
+        if (plusTree != null) {
+            plusTree.insert(product);
+        } else {
+            starTree.insert(product);
+        }
+    }
+
+    private static void print(String name, String operation, int ops, long elapsedNanos, long bytes, long nodes) {
+        System.out.println(String.format("%-7s | %-8s | %-12.0f | %-10.1f | %-12.2f", name, operation,
+                ops * 1e9 / elapsedNanos, (double) bytes / ops, nodes * 1000.0 / ops));
+    }
+}
@@ -0,0 +1,199 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato das páginas da PagedBPlusTree. Toda página começa por um cabeçalho de 8 bytes:
+ * tipo (1), reservado (1), quantidade de chaves (2) e próxima folha (4, só em folhas).
+ *
+ * Folha:   registros de RECORD_SIZE bytes ordenados por id: id, nome e categoria,
+ *          cada texto com 2 bytes de tamanho seguidos de até MAX_FIELD_BYTES em UTF-8.
+ * Interna: keys[capacidade] seguidas de children[capacidade + 1] (ids de página).
+ */
+final class BPlusPage {
+    static final byte LEAF = 1;
+    static final byte INTERNAL = 2;
+
+    static final int TYPE = 0;
+    static final int COUNT = 2;
+    static final int NEXT = 4;
+    static final int HEADER_SIZE = 8;
+
+    static final int MAX_FIELD_BYTES = 60;
+    static final int RECORD_SIZE = 4 + (2 + MAX_FIELD_BYTES) * 2;
+
+    static final int NO_PAGE = -1;
+
+    private BPlusPage() {
+    }
+
+    static int leafCapacity(int pageSize) {
+        return (pageSize - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    static int internalCapacity(int pageSize) {
+        return (pageSize - HEADER_SIZE - 4) / 8;
+    }
+
+    static void initLeaf(ByteBuffer page) {
+        page.put(TYPE, LEAF);
+        setCount(page, 0);
+        setNext(page, NO_PAGE);
+    }
+
+    static void initInternal(ByteBuffer page) {
+        page.put(TYPE, INTERNAL);
+        setCount(page, 0);
+        setNext(page, NO_PAGE);
+    }
+
+    static boolean isLeaf(ByteBuffer page) {
+        return page.get(TYPE) == LEAF;
+    }
+
+    static int count(ByteBuffer page) {
+        return page.getShort(COUNT) & 0xFFFF;
+    }
+
+    static void setCount(ByteBuffer page, int count) {
+        page.putShort(COUNT, (short) count);
+    }
+
+    static int next(ByteBuffer page) {
+        return page.getInt(NEXT);
+    }
+
+    static void setNext(ByteBuffer page, int next) {
+        page.putInt(NEXT, next);
+    }
+
+    // --- Folhas ---
+
+    static int leafKey(ByteBuffer page, int i) {
+        return page.getInt(HEADER_SIZE + i * RECORD_SIZE);
+    }
+
+    /**
+     * Busca binária na folha. Retorna o índice da chave ou -(ponto de inserção) - 1.
+     */
+    static int leafSearch(ByteBuffer page, int key) {
+        int low = 0;
+        int high = count(page) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = leafKey(page, mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    static Produto readRecord(ByteBuffer page, int i) {
+        int offset = HEADER_SIZE + i * RECORD_SIZE;
+        int id = page.getInt(offset);
+        String nome = readField(page, offset + 4);
+        String categoria = readField(page, offset + 4 + 2 + MAX_FIELD_BYTES);
+        return new Produto(id, nome, categoria);
+    }
+
+    static void writeRecord(ByteBuffer page, int i, int id, byte[] nome, byte[] categoria) {
+        int offset = HEADER_SIZE + i * RECORD_SIZE;
+        page.putInt(offset, id);
+        writeField(page, offset + 4, nome);
+        writeField(page, offset + 4 + 2 + MAX_FIELD_BYTES, categoria);
+    }
+
+    static void insertRecord(ByteBuffer page, int i, int id, byte[] nome, byte[] categoria) {
+        int count = count(page);
+        moveRecords(page, i, page, i + 1, count - i);
+        writeRecord(page, i, id, nome, categoria);
+        setCount(page, count + 1);
+    }
+
+    static void removeRecord(ByteBuffer page, int i) {
+        int count = count(page);
+        moveRecords(page, i + 1, page, i, count - i - 1);
+        setCount(page, count - 1);
+    }
+
+    static void moveRecords(ByteBuffer src, int srcIndex, ByteBuffer dst, int dstIndex, int length) {
+        System.arraycopy(src.array(), src.arrayOffset() + HEADER_SIZE + srcIndex * RECORD_SIZE,
+                dst.array(), dst.arrayOffset() + HEADER_SIZE + dstIndex * RECORD_SIZE,
+                length * RECORD_SIZE);
+    }
+
+    /**
+     * Codifica um campo de texto, rejeitando valores que não cabem no registro de tamanho fixo.
+     */
+    static byte[] encodeField(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Campo excede " + MAX_FIELD_BYTES + " bytes: " + value);
+        }
+        return bytes;
+    }
+
+    private static String readField(ByteBuffer page, int offset) {
+        int length = page.getShort(offset);
+        return new String(page.array(), page.arrayOffset() + offset + 2, length, StandardCharsets.UTF_8);
+    }
+
+    private static void writeField(ByteBuffer page, int offset, byte[] bytes) {
+        page.putShort(offset, (short) bytes.length);
+        System.arraycopy(bytes, 0, page.array(), page.arrayOffset() + offset + 2, bytes.length);
+    }
+
+    // --- Nós internos ---
+
+    static int internalKey(ByteBuffer page, int i) {
+        return page.getInt(HEADER_SIZE + i * 4);
+    }
+
+    static void setInternalKey(ByteBuffer page, int i, int key) {
+        page.putInt(HEADER_SIZE + i * 4, key);
+    }
+
+    static int child(ByteBuffer page, int capacity, int i) {
+        return page.getInt(HEADER_SIZE + capacity * 4 + i * 4);
+    }
+
+    static void setChild(ByteBuffer page, int capacity, int i, int pageId) {
+        page.putInt(HEADER_SIZE + capacity * 4 + i * 4, pageId);
+    }
+
+    /**
+     * Índice do filho que cobre a chave: quantidade de separadores menores ou iguais a ela.
+     */
+    static int findChild(ByteBuffer page, int key) {
+        int low = 0;
+        int high = count(page);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (internalKey(page, mid) <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Insere o separador na posição i, com rightChild logo à direita dele.
+     */
+    static void insertSeparator(ByteBuffer page, int capacity, int i, int key, int rightChild) {
+        int count = count(page);
+        byte[] array = page.array();
+        int base = page.arrayOffset() + HEADER_SIZE;
+        System.arraycopy(array, base + i * 4, array, base + (i + 1) * 4, (count - i) * 4);
+        int childBase = base + capacity * 4;
+        System.arraycopy(array, childBase + (i + 1) * 4, array, childBase + (i + 2) * 4, (count - i) * 4);
+        setInternalKey(page, i, key);
+        setChild(page, capacity, i + 1, rightChild);
+        setCount(page, count + 1);
+    }
+}
@@ -1,269 +1,365 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
+/**
+ * B+ Tree em memória indexada por Produto.getId(): um TreeCore com SplitPolicy, em que cada
+ * nó guarda até order - 1 chaves.
+ *
+ * No modo copy-on-write, insert e delete copiam os nós do caminho da raiz até a folha e
+ * publicam a nova raiz de uma vez. Leituras (search e snapshot) não usam lock: enxergam a
+ * versão da raiz vigente quando começaram. Nesse modo as folhas não são encadeadas, pois
+ * religar a folha anterior exigiria copiar a cadeia inteira; a varredura é feita pela
+ * Snapshot, que percorre a árvore com uma pilha.
+ */
 public class BPlusTree {
-    private BPlusNode root;
-    private final int order;
+    private static final long MIN_BLOOM_CAPACITY = 1024;
 
-    // Abstract base class for B+ Tree nodes
-    public static abstract class BPlusNode {
-        protected int order;
-        public BPlusNode(int order) {
-            this.order = order;
-        }
-        public abstract boolean isLeaf();
-        public abstract List<Integer> getKeys();
+    private final TreeCore core;
+    private final int order;
+    private volatile BlockedBloomFilter bloomFilter;
+    private volatile ProductCache cache;
+
+    /**
+     * Usa a ordem padrão de NodeOrder.tuned().
+     */
+    public BPlusTree() {
+        this(NodeOrder.tuned());
     }
 
     public BPlusTree(int order) {
+        this(order, false);
+    }
+
+    public BPlusTree(int order, boolean copyOnWrite) {
         this.order = order;
-        this.root = new BPlusTreeLeafNode(order);
+        this.core = new TreeCore(order - 1, copyOnWrite, new SplitPolicy());
     }
 
-    // Leaf node class for B+ Tree
-    public static class BPlusTreeLeafNode extends BPlusNode {
-        private List<Integer> keys;
-        private List<Produto> values;
-        private BPlusTreeLeafNode nextLeaf;
-
-        public BPlusTreeLeafNode(int order) {
-            super(order);
-            this.keys = new ArrayList<>();
-            this.values = new ArrayList<>();
-            this.nextLeaf = null;
-        }
+    /**
+     * Monta a árvore de baixo para cima a partir dos count primeiros produtos de sorted, em
+     * ordem crescente de id, sem passar por insert; ids repetidos ficam lado a lado, como
+     * insert os deixa. As folhas recebem até order - 1 produtos, distribuídos por igual, e
+     * cada nível interno agrupa até order filhos separados pela menor chave de cada um.
+     */
+    public static BPlusTree fromSorted(int order, boolean copyOnWrite, Produto[] sorted, int count) {
+        BPlusTree tree = new BPlusTree(order, copyOnWrite);
+        tree.core.buildFromSorted(sorted, count);
+        return tree;
+    }
 
-        @Override
-        public boolean isLeaf() {
-            return true;
-        }
+    /**
+     * Grava um snapshot binário da versão atual da árvore (ver BPlusTreeFile). Fora do modo
+     * copy-on-write, não pode haver escritas concorrentes durante a gravação. Ids repetidos
+     * voltam de load na mesma ordem.
+     */
+    public void save(Path path) throws IOException {
+        TreeCore.Node currentRoot = core.root();
+        BPlusTreeFile.write(path, order, isCopyOnWrite(), TreeCore.subtreeSize(currentRoot), new Snapshot(currentRoot));
+    }
 
-        @Override
-        public List<Integer> getKeys() {
-            return keys;
-        }
+    /**
+     * Carrega um snapshot gravado por save, com a mesma ordem e modo da árvore original.
+     * Filtro de Bloom e cache não fazem parte do snapshot.
+     */
+    public static BPlusTree load(Path path) throws IOException {
+        return BPlusTreeFile.read(path);
+    }
 
-        public List<Produto> getValues() {
-            return values;
-        }
+    public int getOrder() {
+        return order;
+    }
 
-        public BPlusTreeLeafNode getNextLeaf() {
-            return nextLeaf;
-        }
+    public boolean isCopyOnWrite() {
+        return core.isCopyOnWrite();
+    }
 
-        public void setNextLeaf(BPlusTreeLeafNode nextLeaf) {
-            this.nextLeaf = nextLeaf;
-        }
+    public TreeStats getStats() {
+        return core.getStats();
+    }
 
-        public void insert(Produto product) {
-            int key = product.getId();
-            int idx = 0;
-            while (idx < keys.size() && keys.get(idx) < key) {
-                idx++;
+    /**
+     * Passa a manter um BlockedBloomFilter com as chaves da árvore: search e delete de ids
+     * ausentes deixam de descer na árvore. O filtro é reconstruído a partir das chaves atuais
+     * quando passa da capacidade ou acumula remoções demais.
+     */
+    public void enableBloomFilter(double falsePositiveRate) {
+        if (isCopyOnWrite()) {
+            synchronized (this) {
+                rebuildBloomFilter(falsePositiveRate);
             }
-            keys.add(idx, key);
-            values.add(idx, product);
+        } else {
+            rebuildBloomFilter(falsePositiveRate);
         }
+    }
 
-        public boolean isFull() {
-            return keys.size() >= order;
-        }
+    public BlockedBloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
 
-        public int getMinKeys() {
-            return (int) Math.ceil(order / 2.0);
-        }
+    /**
+     * Coloca um ProductCache de até capacity produtos na frente de search. Cada escrita
+     * invalida o id afetado depois de publicada.
+     */
+    public void enableCache(int capacity) {
+        cache = new ProductCache(capacity);
+    }
 
-        public Produto search(int key) {
-            for (int i = 0; i < keys.size(); i++) {
-                if (keys.get(i) == key) {
-                    return values.get(i);
-                }
-            }
-            return null;
-        }
+    public ProductCache getCache() {
+        return cache;
+    }
 
-        public void remove(int key) {
-            for (int i = 0; i < keys.size(); i++) {
-                if (keys.get(i) == key) {
-                    keys.remove(i);
-                    values.remove(i);
-                    break;
-                }
-            }
+    private void invalidateCache(int key) {
+        ProductCache currentCache = cache;
+        if (currentCache != null) {
+            currentCache.invalidate(key);
         }
     }
 
-    public void insert(Produto product) {
-        int key = product.getId();
-        BPlusNode node = root;
-        List<BPlusInternalNodePath> path = new ArrayList<>();
-
-        while (!node.isLeaf()) {
-            BPlusTreeInternalNode internalNode = (BPlusTreeInternalNode) node;
-            int childIndex = internalNode.findChildIndex(key);
-            path.add(new BPlusInternalNodePath(internalNode, childIndex));
-            node = internalNode.getChildren().get(childIndex);
+    private void rebuildBloomFilter(double falsePositiveRate) {
+        TreeCore.Node currentRoot = core.root();
+        BlockedBloomFilter filter = new BlockedBloomFilter(
+                Math.max(2L * TreeCore.subtreeSize(currentRoot), MIN_BLOOM_CAPACITY), falsePositiveRate);
+        for (Iterator<Produto> it = TreeCore.iterator(currentRoot); it.hasNext();) {
+            filter.add(it.next().getId());
         }
-
-        BPlusTreeLeafNode leaf = (BPlusTreeLeafNode) node;
-        leaf.insert(product);
-
-        if (leaf.isFull()) {
-            // Dividir o nó folha
-            int midIndex = leaf.getKeys().size() / 2;
-            int splitKey = leaf.getKeys().get(midIndex);
-
-            BPlusTreeLeafNode newLeaf = new BPlusTreeLeafNode(order);
-            newLeaf.setNextLeaf(leaf.getNextLeaf());
-            leaf.setNextLeaf(newLeaf);
-
-            newLeaf.getKeys().addAll(leaf.getKeys().subList(midIndex + 1, leaf.getKeys().size()));
-            newLeaf.getValues().addAll(leaf.getValues().subList(midIndex + 1, leaf.getValues().size()));
-
-            leaf.getKeys().subList(midIndex, leaf.getKeys().size()).clear();
-            leaf.getValues().subList(midIndex, leaf.getValues().size()).clear();
-
-            if (path.isEmpty()) {
-                BPlusTreeInternalNode newRoot = new BPlusTreeInternalNode(order);
-                newRoot.getKeys().add(splitKey);
-                newRoot.getChildren().add(leaf);
-                newRoot.getChildren().add(newLeaf);
-                this.root = newRoot;
-            } else {
-                propagateSplit(path, splitKey, newLeaf);
-            }
+        if (bloomFilter != null) {
+            filter.inheritCounters(bloomFilter);
         }
+        bloomFilter = filter;
     }
 
-    // Internal node class for B+ Tree
-    public static class BPlusTreeInternalNode extends BPlusNode {
-        private List<Integer> keys;
-        private List<BPlusNode> children;
-
-        public BPlusTreeInternalNode(int order) {
-            super(order);
-            this.keys = new ArrayList<>();
-            this.children = new ArrayList<>();
-        }
-
-        @Override
-        public boolean isLeaf() {
+    /**
+     * Chamado antes de publicar a raiz com a chave: quem lê a raiz nova (volatile) enxerga o
+     * filtro já com ela. A reconstrução, se necessária, acontece depois da publicação.
+     */
+    private boolean addToBloomFilter(int key) {
+        BlockedBloomFilter filter = bloomFilter;
+        if (filter == null) {
             return false;
         }
+        filter.add(key);
+        return filter.needsRebuild();
+    }
 
-        @Override
-        public List<Integer> getKeys() {
-            return keys;
+    public void insert(Produto product) {
+        long start = System.nanoTime();
+        int nodesVisited;
+        if (isCopyOnWrite()) {
+            synchronized (this) {
+                nodesVisited = doInsert(product);
+            }
+        } else {
+            nodesVisited = doInsert(product);
         }
+        invalidateCache(product.getId());
+        getStats().recordInsert(nodesVisited, System.nanoTime() - start);
+    }
 
-        public List<BPlusNode> getChildren() {
-            return children;
+    /**
+     * Retorna a quantidade de nós visitados na descida.
+     */
+    private int doInsert(Produto product) {
+        boolean rebuild = addToBloomFilter(product.getId());
+        int nodesVisited = core.insert(product);
+        if (rebuild) {
+            rebuildBloomFilter(bloomFilter.getFalsePositiveRate());
         }
+        return nodesVisited;
+    }
 
-        public boolean isFull() {
-            return keys.size() >= order;
+    public Produto search(int key) {
+        long start = System.nanoTime();
+        // A versão do cache é lida antes da raiz; ver ProductCache.put
+        ProductCache currentCache = cache;
+        long cacheVersion = 0;
+        if (currentCache != null) {
+            cacheVersion = currentCache.getVersion();
+            Produto cached = currentCache.get(key);
+            if (cached != null) {
+                getStats().recordSearch(0, System.nanoTime() - start);
+                return cached;
+            }
         }
-
-        public int getMinKeys() {
-            return (int) Math.ceil(order / 2.0) - 1;
+        // A raiz é lida antes do filtro; ver addToBloomFilter
+        TreeCore.Node currentRoot = core.root();
+        BlockedBloomFilter filter = bloomFilter;
+        if (filter != null && !filter.check(key)) {
+            getStats().recordSearch(0, System.nanoTime() - start);
+            return null;
         }
-
-        public int findChildIndex(int key) {
-            int idx = 0;
-            while (idx < keys.size() && key >= keys.get(idx)) {
-                idx++;
-            }
-            return idx;
+        Produto found = TreeCore.search(currentRoot, key);
+        if (found == null && filter != null) {
+            filter.recordFalsePositive();
         }
-    }
-
-    private static class BPlusInternalNodePath {
-        BPlusTreeInternalNode node;
-        int childIndex;
-
-        BPlusInternalNodePath(BPlusTreeInternalNode node, int childIndex) {
-            this.node = node;
-            this.childIndex = childIndex;
+        if (found != null && currentCache != null) {
+            currentCache.put(found, cacheVersion);
         }
+        getStats().recordSearch(TreeCore.height(currentRoot), System.nanoTime() - start);
+        return found;
     }
 
-    private void propagateSplit(List<BPlusInternalNodePath> path, int keyToPropagate, BPlusNode newNode) {
-        BPlusInternalNodePath currentPath = path.remove(path.size() - 1);
-        BPlusTreeInternalNode parent = currentPath.node;
-        int childIndex = currentPath.childIndex;
+    /**
+     * Produtos com id em [from, to], em ordem. Fora do modo copy-on-write segue o
+     * encadeamento das folhas; no modo copy-on-write desce só pelos filhos cujo intervalo
+     * cruza a faixa.
+     */
+    public List<Produto> rangeSearch(int from, int to) {
+        List<Produto> result = new ArrayList<>();
+        TreeCore.rangeSearch(core.root(), !isCopyOnWrite(), from, to, result);
+        return result;
+    }
 
-        parent.getKeys().add(childIndex, keyToPropagate);
-        parent.getChildren().add(childIndex + 1, newNode);
+    public int size() {
+        return TreeCore.subtreeSize(core.root());
+    }
 
-        if (parent.isFull()) {
-            int midIndex = parent.getKeys().size() / 2;
-            int splitKey = parent.getKeys().get(midIndex);
+    /**
+     * Quantidade de produtos com id menor que key, em O(log n) pelos tamanhos das subárvores.
+     */
+    public int rank(int key) {
+        return TreeCore.countBelow(core.root(), key);
+    }
 
-            BPlusTreeInternalNode newInternalNode = new BPlusTreeInternalNode(order);
+    /**
+     * Produto na posição index (a partir de 0) em ordem de id.
+     */
+    public Produto select(int index) {
+        return TreeCore.select(core.root(), index);
+    }
 
-            newInternalNode.getKeys().addAll(parent.getKeys().subList(midIndex + 1, parent.getKeys().size()));
-            newInternalNode.getChildren().addAll(parent.getChildren().subList(midIndex + 1, parent.getChildren().size()));
+    /**
+     * Quantidade de produtos com id em [from, to].
+     */
+    public int count(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        TreeCore.Node currentRoot = core.root();
+        return TreeCore.countBelow(currentRoot, (long) to + 1) - TreeCore.countBelow(currentRoot, from);
+    }
 
-            parent.getKeys().subList(midIndex, parent.getKeys().size()).clear();
-            parent.getChildren().subList(midIndex + 1, parent.getChildren().size()).clear();
+    /**
+     * Remove o produto com o id informado. Um nó que fica com menos da metade das chaves pega
+     * chaves de um irmão ou é fundido com ele (ver SplitPolicy).
+     */
+    public boolean delete(int key) {
+        boolean removed;
+        if (isCopyOnWrite()) {
+            synchronized (this) {
+                removed = doDelete(key);
+            }
+        } else {
+            removed = doDelete(key);
+        }
+        if (removed) {
+            invalidateCache(key);
+        }
+        return removed;
+    }
 
-            if (path.isEmpty()) {
-                BPlusTreeInternalNode newRoot = new BPlusTreeInternalNode(order);
-                newRoot.getKeys().add(splitKey);
-                newRoot.getChildren().add(parent);
-                newRoot.getChildren().add(newInternalNode);
-                this.root = newRoot;
+    private boolean doDelete(int key) {
+        BlockedBloomFilter filter = bloomFilter;
+        if (filter != null && !filter.check(key)) {
+            return false;
+        }
+        boolean removed = core.delete(key);
+        if (filter != null) {
+            if (removed) {
+                filter.recordRemoval();
+                if (filter.needsRebuild()) {
+                    rebuildBloomFilter(filter.getFalsePositiveRate());
+                }
             } else {
-                propagateSplit(path, splitKey, newInternalNode);
+                filter.recordFalsePositive();
             }
         }
+        return removed;
     }
 
+    /**
+     * Busca vários ids de uma vez. As chaves são ordenadas e as que caem na mesma folha são
+     * resolvidas com uma única descida, que recomeça do ancestral comum com a folha anterior.
+     * O resultado segue a ordem de ids, com null para os ids ausentes.
+     */
+    public Produto[] searchBatch(int[] ids) {
+        Produto[] result = new Produto[ids.length];
+        // Chave nos 32 bits altos e posição original nos baixos, para ordenar sem boxing
+        long[] sorted = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            sorted[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(sorted);
+        TreeCore.searchSorted(core.root(), sorted, result);
+        return result;
+    }
 
-    public Produto search(int key) {
-        BPlusNode current = root;
-        while (!current.isLeaf()) {
-            BPlusTreeInternalNode internalNode = (BPlusTreeInternalNode) current;
-            int i = 0;
-            while (i < internalNode.getKeys().size() && key >= internalNode.getKeys().get(i)) {
-                i++;
+    /**
+     * Insere vários produtos de uma vez, em ordem de id e numa única escrita do núcleo: no
+     * modo copy-on-write cada nó do caminho é copiado no máximo uma vez por lote e a raiz
+     * nova é publicada só no fim.
+     */
+    public void insertBatch(List<Produto> products) {
+        if (isCopyOnWrite()) {
+            synchronized (this) {
+                doInsertBatch(products);
             }
-            current = internalNode.getChildren().get(i);
+        } else {
+            doInsertBatch(products);
+        }
+        for (Produto product : products) {
+            invalidateCache(product.getId());
         }
-        BPlusTreeLeafNode leaf = (BPlusTreeLeafNode) current;
-        return leaf.search(key);
     }
 
-    public boolean delete(int key) {
-        BPlusNode node = root;
-        List<BPlusInternalNodePath> path = new ArrayList<>();
-
-        // 1. Encontrar a folha
-        while (!node.isLeaf()) {
-            BPlusTreeInternalNode internalNode = (BPlusTreeInternalNode) node;
-            int childIndex = internalNode.findChildIndex(key);
-            path.add(new BPlusInternalNodePath(internalNode, childIndex));
-            node = internalNode.getChildren().get(childIndex);
+    private void doInsertBatch(List<Produto> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Produto[] sorted = products.toArray(new Produto[0]);
+        Arrays.sort(sorted);
+        boolean rebuild = false;
+        for (Produto product : sorted) {
+            rebuild |= addToBloomFilter(product.getId());
         }
+        core.insertAll(sorted);
+        if (rebuild) {
+            rebuildBloomFilter(bloomFilter.getFalsePositiveRate());
+        }
+    }
 
-        BPlusTreeLeafNode leaf = (BPlusTreeLeafNode) node;
-        Produto productToRemove = leaf.search(key);
-        if (productToRemove == null) {
-            return false;
+    /**
+     * Retorna em O(1) uma visão imutável da versão atual da árvore. Só disponível no modo
+     * copy-on-write. Versões antigas ficam alcançáveis apenas pelas Snapshot que as
+     * referenciam e são recuperadas pelo coletor de lixo quando a última é descartada.
+     */
+    public Snapshot snapshot() {
+        if (!isCopyOnWrite()) {
+            throw new IllegalStateException("snapshot() exige uma BPlusTree no modo copy-on-write");
         }
+        return new Snapshot(core.root());
+    }
+
+    public static final class Snapshot implements Iterable<Produto> {
+        private final TreeCore.Node root;
 
-        leaf.remove(key);
-        if (leaf.getKeys().size() < leaf.getMinKeys() && !path.isEmpty()) {
+        private Snapshot(TreeCore.Node root) {
+            this.root = root;
         }
 
-        if (root.getKeys().isEmpty() && !root.isLeaf()) {
-            BPlusTreeInternalNode internalRoot = (BPlusTreeInternalNode) root;
-            if (!internalRoot.getChildren().isEmpty()) {
-                 root = internalRoot.getChildren().get(0);
-            } else {
-                 root = new BPlusTreeLeafNode(order);
-            }
+        public Produto search(int key) {
+            return TreeCore.search(root, key);
+        }
+
+        /**
+         * Percorre os produtos em ordem de id, descendo pela pilha de nós internos.
+         */
+        @Override
+        public Iterator<Produto> iterator() {
+            return TreeCore.iterator(root);
         }
-        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot binário de uma BPlusTree: os produtos das folhas em ordem de id, precedidos por um
+ * cabeçalho de tamanho fixo.
+ *
+ * Cabeçalho (64 bytes): [magic (4)][versão (4)][ordem (4)][flags (4)][produtos (8)]
+ * [categorias (4)][bytes de dados (8)][crc32c dos dados (4)][crc32c do cabeçalho (4)], o resto
+ * zerado. Dados: um registro por produto, [id (4)][categoria (4)][nome (string)], onde
+ * categoria é o índice da categoria no dicionário; quando o índice é igual ao tamanho atual do
+ * dicionário, a string da categoria nova vem logo em seguida. Strings são
+ * [tamanho (2)][UTF-8], com 0xFFFF para null.
+ *
+ * A gravação vai para um arquivo temporário que só substitui o destino depois de forçado ao
+ * disco. Ids repetidos, que insert aceita, são gravados lado a lado na ordem da árvore. A
+ * leitura mapeia o arquivo em janelas, confere os dois checksums antes de decodificar qualquer
+ * produto e monta a árvore com BPlusTree.fromSorted, sem chamar insert.
+ */
+public class BPlusTreeFile {
+    private static final int MAGIC = 0x45443253; // "ED2S"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int HEADER_CHECKED_BYTES = 40;
+    private static final int FLAG_COPY_ON_WRITE = 1;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int MAX_STRING_BYTES = NULL_STRING - 1;
+    private static final int MAX_RECORD_BYTES = 4 + 4 + 2 * (2 + MAX_STRING_BYTES);
+    private static final int WRITE_BUFFER_BYTES = 1024 * 1024;
+    private static final long MAP_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private BPlusTreeFile() {
+    }
+
+    /**
+     * Grava count produtos, já em ordem crescente de id (repetidos permitidos), em path.
+     */
+    static void write(Path path, int order, boolean copyOnWrite, long count, Iterable<Produto> products)
+            throws IOException {
+        Path tmp = Paths.get(path + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+            CRC32C crc = new CRC32C();
+            Map<String, Integer> categories = new HashMap<>();
+            long written = 0;
+            long payloadBytes = 0;
+            channel.position(HEADER_BYTES);
+
+            for (Produto product : products) {
+                if (buffer.remaining() < MAX_RECORD_BYTES) {
+                    payloadBytes += flush(channel, buffer, crc);
+                }
+                buffer.putInt(product.getId());
+                Integer category = categories.get(product.getCategoria());
+                if (category != null) {
+                    buffer.putInt(category);
+                } else {
+                    buffer.putInt(categories.size());
+                    putString(buffer, product.getCategoria());
+                    categories.put(product.getCategoria(), categories.size());
+                }
+                putString(buffer, product.getNome());
+                written++;
+            }
+            payloadBytes += flush(channel, buffer, crc);
+            if (written != count) {
+                throw new IllegalStateException("A árvore mudou durante a gravação do snapshot: "
+                        + count + " produtos esperados, " + written + " gravados");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(order)
+                    .putInt(copyOnWrite ? FLAG_COPY_ON_WRITE : 0)
+                    .putLong(count).putInt(categories.size())
+                    .putLong(payloadBytes).putInt((int) crc.getValue());
+            header.putInt(checksum(header.array(), HEADER_CHECKED_BYTES));
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        crc.update(buffer.array(), 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String com mais de " + MAX_STRING_BYTES + " bytes: "
+                    + value.substring(0, 32) + "...");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Lê o snapshot gravado por write. Lança IOException se o arquivo estiver truncado,
+     * corrompido ou em outro formato.
+     */
+    static BPlusTree read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Snapshot truncado: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            byte[] headerBytes = new byte[HEADER_BYTES];
+            header.get(headerBytes);
+            header = ByteBuffer.wrap(headerBytes);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Arquivo não é um snapshot de BPlusTree: " + path);
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Versão de snapshot não suportada: " + version);
+            }
+            int order = header.getInt();
+            boolean copyOnWrite = (header.getInt() & FLAG_COPY_ON_WRITE) != 0;
+            long count = header.getLong();
+            int categoryCount = header.getInt();
+            long payloadBytes = header.getLong();
+            int payloadCrc = header.getInt();
+            if (header.getInt() != checksum(headerBytes, HEADER_CHECKED_BYTES)) {
+                throw new IOException("Checksum do cabeçalho do snapshot não confere: " + path);
+            }
+            if (channel.size() != HEADER_BYTES + payloadBytes) {
+                throw new IOException("Snapshot com tamanho inesperado: " + channel.size() + " bytes, "
+                        + (HEADER_BYTES + payloadBytes) + " esperados");
+            }
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new IOException("Snapshot grande demais para uma BPlusTree em memória: " + count);
+            }
+
+            CRC32C crc = new CRC32C();
+            for (long offset = 0; offset < payloadBytes; offset += MAP_WINDOW_BYTES) {
+                long length = Math.min(MAP_WINDOW_BYTES, payloadBytes - offset);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + offset, length));
+            }
+            if ((int) crc.getValue() != payloadCrc) {
+                throw new IOException("Checksum dos dados do snapshot não confere: " + path);
+            }
+
+            Produto[] products = decode(channel, payloadBytes, (int) count, categoryCount);
+            try {
+                return BPlusTree.fromSorted(order, copyOnWrite, products, products.length);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Snapshot inválido: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static Produto[] decode(FileChannel channel, long payloadBytes, int count, int categoryCount)
+            throws IOException {
+        Produto[] products = new Produto[count];
+        List<String> categories = new ArrayList<>(categoryCount);
+        byte[] scratch = new byte[MAX_STRING_BYTES];
+        long windowStart = 0;
+        MappedByteBuffer window = null;
+        try {
+            for (int i = 0; i < count; i++) {
+                // Remapeia quando o próximo registro pode não caber no restante da janela
+                if (window == null || (window.remaining() < MAX_RECORD_BYTES
+                        && windowStart + window.limit() < payloadBytes)) {
+                    windowStart += window == null ? 0 : window.position();
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + windowStart,
+                            Math.min(MAP_WINDOW_BYTES, payloadBytes - windowStart));
+                }
+                int id = window.getInt();
+                int category = window.getInt();
+                String categoria;
+                if (category == categories.size()) {
+                    categoria = getString(window, scratch);
+                    categories.add(categoria);
+                } else if (category >= 0 && category < categories.size()) {
+                    categoria = categories.get(category);
+                } else {
+                    throw new IOException("Índice de categoria inválido no snapshot: " + category);
+                }
+                products[i] = new Produto(id, getString(window, scratch), categoria);
+            }
+            if (window != null && windowStart + window.position() != payloadBytes) {
+                throw new IOException("Snapshot com bytes sobrando depois do último produto");
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot truncado: menos produtos que o indicado no cabeçalho", e);
+        }
+        return products;
+    }
+
+    private static String getString(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Random;
+
+/**
+ * Conferência da BStarTree na ordem 3, a menor aceita: com 2 chaves por nó, a divisão da raiz
+ * pode deixar um nó interno sem chaves e com um único filho, e o overflow seguinte acontece
+ * num nó sem irmão. Cada semente faz inserções e remoções aleatórias e confere que todo id
+ * presente é encontrado, que os removidos somem e que a iteração sai em ordem e completa.
+ *
+ * Uso: java BStarOrderCheck [sementes] [operações por semente] [ordem]
+ */
+public class BStarOrderCheck {
+
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int order = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        int height = 0;
+        for (int seed = 0; seed < seeds; seed++) {
+            height = Math.max(height, check(seed, operations, order));
+        }
+        System.out.println("B* Tree de ordem " + order + ": " + seeds + " sequências de " + operations
+                + " operações aleatórias conferidas (altura máxima " + height + ")");
+    }
+
+    /** Roda uma sequência e retorna a altura final da árvore. */
+    private static int check(int seed, int operations, int order) {
+        Random random = new Random(seed);
+        BStarTree tree = new BStarTree(order);
+        boolean[] present = new boolean[operations * 2];
+        int size = 0;
+        for (int i = 0; i < operations; i++) {
+            int id = random.nextInt(present.length);
+            // Uma operação em quatro é remoção, para a árvore crescer e encolher
+            if (random.nextInt(4) == 0) {
+                if (tree.delete(id) != present[id]) {
+                    throw new IllegalStateException("Remoção do id " + id + " inconsistente na semente " + seed);
+                }
+                if (present[id]) {
+                    present[id] = false;
+                    size--;
+                }
+            } else if (!present[id]) {
+                present[id] = true;
+                size++;
+                tree.insert(new Produto(id, "Produto " + id, "Categoria " + (id % 50)));
+            }
+        }
+
+        int previous = -1;
+        int visited = 0;
+        for (Produto p : tree) {
+            if (p.getId() <= previous || !present[p.getId()] || tree.search(p.getId()) != p) {
+                throw new IllegalStateException("B* Tree de ordem " + order + " inconsistente na semente " + seed + ", id " + p.getId());
+            }
+            previous = p.getId();
+            visited++;
+        }
+        if (visited != size || tree.size() != size) {
+            throw new IllegalStateException("B* Tree de ordem " + order + " com " + visited + " produtos, " + size
+                    + " esperados (semente " + seed + ")");
+        }
+        return tree.getStats().refreshShape().getHeight();
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de Bloom em blocos para ids inteiros. Cada chave escolhe um bloco de 512 bits
+ * (uma linha de cache de 64 bytes) e liga hashCount bits dentro dele, então uma consulta
+ * toca uma única linha de cache em vez de hashCount linhas espalhadas.
+ *
+ * O filtro não remove chaves: recordRemoval apenas contabiliza as remoções, e needsRebuild
+ * avisa quando elas passam de um quarto das chaves vivas (ou as inserções passam da
+ * capacidade), pois cada chave removida continua sendo um falso positivo. A árvore dona
+ * do filtro o reconstrói a partir das chaves atuais nesse caso.
+ *
+ * Os contadores medem o efeito do filtro: lookupsSaved são consultas respondidas sem descer
+ * na árvore; falsePositives são as que passaram pelo filtro mas não acharam a chave.
+ */
+public class BlockedBloomFilter {
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+    private static final int BITS_PER_HASH = 64 / 9;
+
+    private final long[] words;
+    private final int blockCount;
+    private final int hashCount;
+    private final long capacity;
+    private final double falsePositiveRate;
+    private long entries;
+    private long removals;
+
+    private final LongAdder lookupsSaved = new LongAdder();
+    private final LongAdder lookupsPassed = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public BlockedBloomFilter(long capacity, double falsePositiveRate) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A capacidade deve ser positiva");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("A taxa de falsos positivos deve estar entre 0 e 1");
+        }
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+        double ln2 = Math.log(2);
+        double bitsPerEntry = -Math.log(falsePositiveRate) / (ln2 * ln2);
+        int hashes = (int) Math.max(1, Math.min(16, Math.round(bitsPerEntry * ln2)));
+        // Os blocos não ficam igualmente cheios, então o tamanho clássico não basta: cresce
+        // até que a estimativa para blocos atinja a taxa pedida
+        while (blockedFalsePositiveRate(bitsPerEntry, hashes) > falsePositiveRate && bitsPerEntry < 64) {
+            bitsPerEntry *= 1.05;
+        }
+        long bits = (long) Math.ceil(capacity * bitsPerEntry);
+        long blocks = Math.max(1, (bits + BLOCK_BITS - 1) / BLOCK_BITS);
+        if (blocks > Integer.MAX_VALUE / BLOCK_WORDS) {
+            throw new IllegalArgumentException("Capacidade grande demais para o filtro: " + capacity);
+        }
+        this.blockCount = (int) blocks;
+        this.hashCount = hashes;
+        this.words = new long[blockCount * BLOCK_WORDS];
+    }
+
+    /**
+     * Taxa de falsos positivos esperada: a quantidade de chaves por bloco segue uma Poisson,
+     * e em cada bloco vale a fórmula clássica com BLOCK_BITS bits.
+     */
+    private static double blockedFalsePositiveRate(double bitsPerEntry, int hashes) {
+        double mean = BLOCK_BITS / bitsPerEntry;
+        int limit = (int) (mean + 10 * Math.sqrt(mean) + 10);
+        double probability = Math.exp(-mean);
+        double rate = 0;
+        for (int entries = 0; entries <= limit; entries++) {
+            if (entries > 0) {
+                probability *= mean / entries;
+            }
+            double filled = 1 - Math.pow(1 - 1.0 / BLOCK_BITS, (double) hashes * entries);
+            rate += probability * Math.pow(filled, hashes);
+        }
+        return rate;
+    }
+
+    public void add(int key) {
+        long hash = hash(key);
+        int base = block(hash) * BLOCK_WORDS;
+        long bits = hash;
+        for (int i = 0; i < hashCount; i++) {
+            if (i % BITS_PER_HASH == 0) {
+                bits = mix(bits);
+            }
+            int bit = (int) bits & (BLOCK_BITS - 1);
+            bits >>>= 9;
+            words[base + (bit >>> 6)] |= 1L << bit;
+        }
+        entries++;
+    }
+
+    /**
+     * false garante que a chave nunca foi adicionada; true pode ser falso positivo.
+     */
+    public boolean mightContain(int key) {
+        long hash = hash(key);
+        int base = block(hash) * BLOCK_WORDS;
+        long bits = hash;
+        for (int i = 0; i < hashCount; i++) {
+            if (i % BITS_PER_HASH == 0) {
+                bits = mix(bits);
+            }
+            int bit = (int) bits & (BLOCK_BITS - 1);
+            bits >>>= 9;
+            if ((words[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * mightContain contabilizado nos contadores de consultas.
+     */
+    boolean check(int key) {
+        if (mightContain(key)) {
+            lookupsPassed.increment();
+            return true;
+        }
+        lookupsSaved.increment();
+        return false;
+    }
+
+    void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    void recordRemoval() {
+        removals++;
+    }
+
+    /**
+     * Verdadeiro quando o filtro passou da capacidade ou acumulou remoções demais.
+     */
+    boolean needsRebuild() {
+        return entries > capacity || removals > (entries - removals) / 4;
+    }
+
+    /**
+     * Mantém os contadores de consultas ao trocar um filtro pelo reconstruído.
+     */
+    void inheritCounters(BlockedBloomFilter previous) {
+        lookupsSaved.add(previous.lookupsSaved.sum());
+        lookupsPassed.add(previous.lookupsPassed.sum());
+        falsePositives.add(previous.falsePositives.sum());
+    }
+
+    private static long hash(int key) {
+        return mix(key);
+    }
+
+    /**
+     * Um passo do SplitMix64. Os bits dentro do bloco saem de 9 em 9 de novas rodadas de mix
+     * sobre a hash, e não de uma dupla hash: com apenas 9 bits por posição, h1 + i * h2 gera
+     * padrões que se repetem entre chaves e piora bastante a taxa de falsos positivos.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int block(long hash) {
+        return (int) (((hash >>> 32) * blockCount) >>> 32);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getBitCount() {
+        return (long) words.length * 64;
+    }
+
+    public long getLookupsSaved() {
+        return lookupsSaved.sum();
+    }
+
+    public long getLookupsPassed() {
+        return lookupsPassed.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Fração das consultas por chaves ausentes que o filtro deixou passar.
+     */
+    public double getObservedFalsePositiveRate() {
+        long saved = getLookupsSaved();
+        long falsePositive = getFalsePositives();
+        return saved + falsePositive == 0 ? 0 : (double) falsePositive / (saved + falsePositive);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BloomFilter [bits=%d, hashes=%d, consultas evitadas=%d, repassadas=%d, falsos positivos=%d (%.2f%%)]",
+                getBitCount(), hashCount, getLookupsSaved(), getLookupsPassed(), getFalsePositives(),
+                getObservedFalsePositiveRate() * 100);
+    }
+}
@@ -0,0 +1,321 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Cache limitado de páginas de um PageFile, com um número fixo de frames.
+ * Cada página em uso fica fixada (pin) até ser liberada com unpinPage; páginas liberadas
+ * são escolhidas para despejo pelo algoritmo CLOCK, e as sujas são gravadas antes de sair.
+ */
+public class BufferPool implements BufferPoolMBean {
+    private static final int EMPTY = -1;
+
+    private final PageFile file;
+    private final ByteBuffer[] frames;
+    private final int[] framePage;
+    private final int[] pinCount;
+    private final boolean[] dirty;
+    private final boolean[] referenced;
+    private int clockHand;
+    private int dirtyCount;
+    private boolean stealEnabled = true;
+
+    // Tabela página -> frame com endereçamento aberto (sem boxing de Integer)
+    private final int[] tablePages;
+    private final int[] tableFrames;
+    private final int tableMask;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long reads;
+    private long writes;
+
+    public BufferPool(PageFile file, int frameCount) {
+        if (frameCount < 3) {
+            throw new IllegalArgumentException("O buffer pool precisa de pelo menos 3 frames");
+        }
+        this.file = file;
+        this.frames = new ByteBuffer[frameCount];
+        this.framePage = new int[frameCount];
+        this.pinCount = new int[frameCount];
+        this.dirty = new boolean[frameCount];
+        this.referenced = new boolean[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            frames[i] = ByteBuffer.allocate(file.getPageSize());
+            framePage[i] = EMPTY;
+        }
+
+        int tableSize = Integer.highestOneBit(frameCount * 2 - 1) << 1;
+        this.tablePages = new int[tableSize];
+        this.tableFrames = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        Arrays.fill(tablePages, EMPTY);
+    }
+
+    /**
+     * Retorna a página fixada em memória, lendo-a do arquivo se necessário.
+     */
+    public synchronized ByteBuffer fetchPage(int pageId) {
+        int frame = lookup(pageId);
+        if (frame != EMPTY) {
+            hits++;
+        } else {
+            misses++;
+            frame = claimFrame(pageId);
+            try {
+                file.readPage(pageId, frames[frame]);
+            } catch (IOException e) {
+                discard(frame);
+                throw new UncheckedIOException(e);
+            }
+            reads++;
+        }
+        pinCount[frame]++;
+        referenced[frame] = true;
+        return frames[frame];
+    }
+
+    /**
+     * Fixa um frame zerado para uma página recém-alocada, sem lê-la do arquivo.
+     * A página já nasce suja, pois ainda não existe em disco.
+     */
+    public synchronized ByteBuffer newPage(int pageId) {
+        int frame = lookup(pageId);
+        if (frame == EMPTY) {
+            frame = claimFrame(pageId);
+        }
+        ByteBuffer page = frames[frame];
+        Arrays.fill(page.array(), page.arrayOffset(), page.arrayOffset() + page.capacity(), (byte) 0);
+        pinCount[frame]++;
+        referenced[frame] = true;
+        markDirty(frame);
+        return page;
+    }
+
+    public synchronized void unpinPage(int pageId, boolean isDirty) {
+        int frame = lookup(pageId);
+        if (frame == EMPTY || pinCount[frame] == 0) {
+            throw new IllegalStateException("Página " + pageId + " não está fixada");
+        }
+        pinCount[frame]--;
+        if (isDirty) {
+            markDirty(frame);
+        }
+    }
+
+    /**
+     * Com steal desligado, páginas sujas nunca são despejadas: só saem do pool em flushAll.
+     * Isso permite que o WriteAheadLog grave imagens consistentes das páginas no checkpoint.
+     */
+    public synchronized void setStealEnabled(boolean stealEnabled) {
+        this.stealEnabled = stealEnabled;
+    }
+
+    public interface PageVisitor {
+        void visit(int pageId, ByteBuffer page) throws IOException;
+    }
+
+    public synchronized void forEachDirtyPage(PageVisitor visitor) throws IOException {
+        for (int frame = 0; frame < frames.length; frame++) {
+            if (framePage[frame] != EMPTY && dirty[frame]) {
+                visitor.visit(framePage[frame], frames[frame]);
+            }
+        }
+    }
+
+    /**
+     * Grava todas as páginas sujas no arquivo (sem forçar o disco).
+     */
+    public synchronized void flushAll() throws IOException {
+        for (int frame = 0; frame < frames.length; frame++) {
+            if (framePage[frame] != EMPTY && dirty[frame]) {
+                writeBack(frame);
+            }
+        }
+    }
+
+    private int claimFrame(int pageId) {
+        int frame = findVictim();
+        if (framePage[frame] != EMPTY) {
+            if (dirty[frame]) {
+                try {
+                    writeBack(frame);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            remove(framePage[frame]);
+            evictions++;
+        }
+        framePage[frame] = pageId;
+        dirty[frame] = false;
+        referenced[frame] = false;
+        put(pageId, frame);
+        return frame;
+    }
+
+    /**
+     * CLOCK: percorre os frames em círculo dando uma segunda chance aos referenciados.
+     */
+    private int findVictim() {
+        for (int step = 0; step < frames.length * 2; step++) {
+            int frame = clockHand;
+            clockHand = (clockHand + 1) % frames.length;
+            if (framePage[frame] == EMPTY) {
+                return frame;
+            }
+            if (pinCount[frame] > 0 || (dirty[frame] && !stealEnabled)) {
+                continue;
+            }
+            if (referenced[frame]) {
+                referenced[frame] = false;
+            } else {
+                return frame;
+            }
+        }
+        throw new IllegalStateException("Todos os " + frames.length + " frames estão fixados ou sujos");
+    }
+
+    private void writeBack(int frame) throws IOException {
+        file.writePage(framePage[frame], frames[frame]);
+        dirty[frame] = false;
+        dirtyCount--;
+        writes++;
+    }
+
+    private void markDirty(int frame) {
+        if (!dirty[frame]) {
+            dirty[frame] = true;
+            dirtyCount++;
+        }
+    }
+
+    private void discard(int frame) {
+        remove(framePage[frame]);
+        framePage[frame] = EMPTY;
+        dirty[frame] = false;
+    }
+
+    // --- Tabela página -> frame ---
+
+    private int slot(int pageId) {
+        return (pageId * 0x9E3779B9) >>> 7 & tableMask;
+    }
+
+    private int lookup(int pageId) {
+        for (int i = slot(pageId); tablePages[i] != EMPTY; i = (i + 1) & tableMask) {
+            if (tablePages[i] == pageId) {
+                return tableFrames[i];
+            }
+        }
+        return EMPTY;
+    }
+
+    private void put(int pageId, int frame) {
+        int i = slot(pageId);
+        while (tablePages[i] != EMPTY) {
+            i = (i + 1) & tableMask;
+        }
+        tablePages[i] = pageId;
+        tableFrames[i] = frame;
+    }
+
+    private void remove(int pageId) {
+        int i = slot(pageId);
+        while (tablePages[i] != pageId) {
+            i = (i + 1) & tableMask;
+        }
+        // Remoção com deslocamento para trás, mantendo as sequências de sondagem intactas
+        int j = i;
+        while (true) {
+            j = (j + 1) & tableMask;
+            if (tablePages[j] == EMPTY) {
+                break;
+            }
+            int home = slot(tablePages[j]);
+            if (((j - home) & tableMask) >= ((j - i) & tableMask)) {
+                tablePages[i] = tablePages[j];
+                tableFrames[i] = tableFrames[j];
+                i = j;
+            }
+        }
+        tablePages[i] = EMPTY;
+    }
+
+    // --- Contadores ---
+
+    /**
+     * Registra os contadores no servidor JMX da plataforma como ED2:type=BufferPool,name=name.
+     */
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("ED2:type=BufferPool,name=" + name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao registrar o MBean do buffer pool", e);
+        }
+    }
+
+    @Override
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    @Override
+    public synchronized int getPinnedFrames() {
+        int pinned = 0;
+        for (int count : pinCount) {
+            if (count > 0) {
+                pinned++;
+            }
+        }
+        return pinned;
+    }
+
+    @Override
+    public synchronized int getDirtyFrames() {
+        return dirtyCount;
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    @Override
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("BufferPool [frames=%d, hit ratio=%.2f%%, leituras=%d, escritas=%d, despejos=%d]",
+                frames.length, getHitRatio() * 100, reads, writes, evictions);
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Contadores do BufferPool exportados via JMX.
+ */
+public interface BufferPoolMBean {
+    int getFrameCount();
+    int getPinnedFrames();
+    int getDirtyFrames();
+    long getHits();
+    long getMisses();
+    double getHitRatio();
+    long getEvictions();
+    long getReads();
+    long getWrites();
+}
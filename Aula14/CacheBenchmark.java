@@ -0,0 +1,102 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Mede hit ratio e latência de BPlusTree.search com e sem ProductCache, com ids sorteados
+ * por uma distribuição de Zipf (poucos ids concentram a maior parte das leituras).
+ * Uma fração das operações são inserções, que invalidam o cache.
+ *
+ * Uso: java CacheBenchmark [produtos] [buscas] [expoente de Zipf] [% de escritas]
+ */
+public class CacheBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        double exponent = args.length > 2 ? Double.parseDouble(args[2]) : 0.99;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        shuffle(ids, new Random(7));
+        // Os ids mais populares ficam espalhados pela árvore, não concentrados em uma folha
+        int[] workload = zipfWorkload(ids, lookups, exponent, new Random(42));
+
+        System.out.println("Produtos: " + count + ", buscas: " + lookups + ", Zipf s=" + exponent
+                + ", escritas: " + writePercent + "%");
+        System.out.println(String.format("%-10s | %-10s | %-12s | %-10s | %-10s",
+                "Cache", "hit ratio", "busca/s", "p50 (ns)", "p99 (ns)"));
+        for (int capacity : new int[] {0, count / 1000, count / 100, count / 20}) {
+            run(ids, workload, capacity, writePercent);
+        }
+    }
+
+    private static void run(int[] ids, int[] workload, int capacity, int writePercent) {
+        BPlusTree tree = new BPlusTree();
+        for (int id : ids) {
+            tree.insert(new Produto(id, "Produto " + id, "Categoria " + (id % 50)));
+        }
+        if (capacity > 0) {
+            tree.enableCache(capacity);
+        }
+
+        Random random = new Random(1);
+        // Latência amostrada a cada 16 buscas para não medir só o System.nanoTime
+        long[] samples = new long[workload.length / 16 + 1];
+        int sampleCount = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < workload.length; i++) {
+            int id = workload[i];
+            if (random.nextInt(100) < writePercent) {
+                tree.insert(new Produto(id, "Produto " + id + "*", "Categoria " + (id % 50)));
+                tree.delete(id);
+                continue;
+            }
+            if ((i & 15) == 0) {
+                long t0 = System.nanoTime();
+                tree.search(id);
+                samples[sampleCount++] = System.nanoTime() - t0;
+            } else {
+                tree.search(id);
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        ProductCache cache = tree.getCache();
+        System.out.println(String.format("%-10s | %-10s | %-12.0f | %-10d | %-10d",
+                capacity == 0 ? "sem" : String.valueOf(capacity),
+                cache == null ? "-" : String.format("%.2f%%", cache.getHitRatio() * 100),
+                workload.length / elapsed, sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)]));
+    }
+
+    /**
+     * Sorteia lookups posições de ids com probabilidade proporcional a 1 / (posição + 1)^s.
+     */
+    private static int[] zipfWorkload(int[] ids, int lookups, double exponent, Random random) {
+        double[] cumulative = new double[ids.length];
+        double sum = 0;
+        for (int i = 0; i < ids.length; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        int[] workload = new int[lookups];
+        for (int i = 0; i < lookups; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            workload[i] = ids[Math.min(index < 0 ? -index - 1 : index, ids.length - 1)];
+        }
+        return workload;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
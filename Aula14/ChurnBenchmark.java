@@ -0,0 +1,77 @@
+import java.util.Random;
+
+/**
+ * Carga de 50% inserções e 50% remoções sobre uma BStarTree pré-carregada: a cada rodada
+ * imprime tamanho, altura e ocupação, que devem ficar estáveis em vez de degradar com as
+ * remoções. A BPlusTree roda a mesma carga para comparação.
+ *
+ * Uso: java ChurnBenchmark [produtos iniciais] [rodadas] [ordem]
+ */
+public class ChurnBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int order = args.length > 2 ? Integer.parseInt(args[2]) : NodeOrder.tuned();
+
+        System.out.println("Produtos iniciais: " + count + ", operações por rodada: " + count + ", ordem: " + order);
+        System.out.println(String.format("%-7s | %-7s | %-9s | %-8s | %-9s | %-9s | %-9s | %-9s",
+                "Rodada", "Árvore", "produtos", "altura", "folhas", "fill", "fill mín.", "ops/s"));
+        run("B*", count, rounds, order, true);
+        run("B+", count, rounds, order, false);
+    }
+
+    private static void run(String name, int count, int rounds, int order, boolean star) {
+        BStarTree starTree = star ? new BStarTree(order) : null;
+        BPlusTree plusTree = star ? null : new BPlusTree(order);
+        // live[0, size) guarda os ids presentes, para sortear remoções que acertam
+        int[] live = new int[count * 2];
+        int size = 0;
+        int nextId = 0;
+        Random random = new Random(42);
+        for (; size < count; size++) {
+            live[size] = nextId;
+            insert(starTree, plusTree, nextId++);
+        }
+        print(name, 0, size, starTree, plusTree, 0);
+
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                if (random.nextBoolean() || size == 0) {
+                    // Ids novos espalhados pelo intervalo já usado, não só no fim da árvore
+                    int id = nextId++ * 7 % (Integer.MAX_VALUE / 8) + count;
+                    live[size++] = id;
+                    insert(starTree, plusTree, id);
+                } else {
+                    int slot = random.nextInt(size);
+                    int id = live[slot];
+                    live[slot] = live[--size];
+                    boolean removed = star ? starTree.delete(id) : plusTree.delete(id);
+                    if (!removed) {
+                        throw new IllegalStateException("Produto " + id + " não removido");
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            print(name, round, size, starTree, plusTree, count / seconds);
+        }
+    }
+
+    private static void insert(BStarTree starTree, BPlusTree plusTree, int id) {
+        Produto product = new Produto(id, "Produto " + id, "Categoria " + (id % 50));
+        if (starTree != null) {
+            starTree.insert(product);
+        } else {
+            plusTree.insert(product);
+        }
+    }
+
+    private static void print(String name, int round, int size, BStarTree starTree, BPlusTree plusTree, double opsPerSecond) {
+        TreeStats stats = starTree != null ? starTree.getStats() : plusTree.getStats();
+        TreeStats.Shape shape = stats.refreshShape();
+        System.out.println(String.format("%-7d | %-7s | %-9d | %-8d | %-9d | %-9.2f | %-9.2f | %-9.0f",
+                round, name, size, shape.getHeight(), shape.getLeafCount(), shape.getAverageFill(),
+                shape.getMinFill(), opsPerSecond));
+    }
+}
@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PagedBPlusTree com WriteAheadLog: cada insert/delete acrescenta um registro de redo ao log
+ * (indexPath + ".wal") e só retorna quando ele está durável segundo a política de commit.
+ * As páginas em si só vão para o disco nos checkpoints.
+ *
+ * Checkpoint: as imagens das páginas sujas e dos metadados são gravadas no log e forçadas;
+ * só então são escritas no arquivo de índice, e o log é truncado. Como o buffer pool roda sem
+ * steal, o arquivo de índice só muda dentro de um checkpoint. Se a queda acontecer no meio
+ * da escrita das páginas, a recuperação reinstala as imagens do log; se acontecer antes do
+ * registro CHECKPOINT, o arquivo ainda está no checkpoint anterior e o redo reaplica as
+ * operações.
+ *
+ * Os escritores são serializados na árvore, mas aguardam o commit fora do lock, o que permite
+ * à política GROUP juntar vários escritores concorrentes em um único fsync.
+ */
+public class DurableBPlusTree implements AutoCloseable {
+    public static final int DEFAULT_CHECKPOINT_OPS = 50_000;
+
+    private final PagedBPlusTree tree;
+    private final WriteAheadLog wal;
+    private final int checkpointOps;
+    private final int dirtyPageLimit;
+    private int opsSinceCheckpoint;
+    private long checkpoints;
+
+    private DurableBPlusTree(PagedBPlusTree tree, WriteAheadLog wal, int checkpointOps) {
+        this.tree = tree;
+        this.wal = wal;
+        this.checkpointOps = checkpointOps;
+        this.dirtyPageLimit = tree.getBufferPool().getFrameCount() / 2;
+    }
+
+    public static DurableBPlusTree open(Path indexPath, WriteAheadLog.CommitPolicy policy,
+                                        long maxDelay, TimeUnit unit) throws IOException {
+        return open(indexPath, policy, maxDelay, unit, DEFAULT_CHECKPOINT_OPS,
+                PagedBPlusTree.DEFAULT_PAGE_SIZE, PagedBPlusTree.DEFAULT_FRAME_COUNT);
+    }
+
+    /**
+     * Abre o índice, reaplica o log deixado por uma execução anterior e faz um checkpoint.
+     * Um checkpoint é feito a cada checkpointOps operações ou quando metade dos frames do
+     * buffer pool estiver suja; por isso o redo sempre cabe no pool, desde que o índice seja
+     * reaberto com pelo menos o mesmo número de frames.
+     */
+    public static DurableBPlusTree open(Path indexPath, WriteAheadLog.CommitPolicy policy,
+                                        long maxDelay, TimeUnit unit, int checkpointOps,
+                                        int pageSize, int frameCount) throws IOException {
+        if (frameCount < 16) {
+            throw new IllegalArgumentException("O índice durável precisa de pelo menos 16 frames");
+        }
+        Path logPath = Paths.get(indexPath + ".wal");
+        PagedBPlusTree tree = PagedBPlusTree.open(indexPath, pageSize, frameCount);
+        tree.getBufferPool().setStealEnabled(false);
+        try {
+            long nextLsn = recover(tree, logPath);
+            WriteAheadLog wal = new WriteAheadLog(logPath, policy, maxDelay, unit, nextLsn);
+            DurableBPlusTree durable = new DurableBPlusTree(tree, wal, checkpointOps);
+            durable.checkpoint();
+            return durable;
+        } catch (IOException | RuntimeException e) {
+            tree.abandon();
+            throw e;
+        }
+    }
+
+    /**
+     * Reinstala as imagens do último checkpoint completo e refaz as operações posteriores a ele.
+     * Retorna o próximo LSN livre.
+     */
+    private static long recover(PagedBPlusTree tree, Path logPath) throws IOException {
+        List<WriteAheadLog.Record> records = WriteAheadLog.readRecords(logPath);
+        WriteAheadLog.discardTail(logPath, records);
+        int lastCheckpoint = -1;
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i).type == WriteAheadLog.CHECKPOINT) {
+                lastCheckpoint = i;
+            }
+        }
+
+        int redoFrom = 0;
+        if (lastCheckpoint >= 0) {
+            int imagesFrom = lastCheckpoint - 1;
+            while (imagesFrom >= 0 && records.get(imagesFrom).type == WriteAheadLog.PAGE) {
+                imagesFrom--;
+            }
+            for (int i = imagesFrom + 1; i < lastCheckpoint; i++) {
+                WriteAheadLog.Record image = records.get(i);
+                tree.installPage(image.id, image.image);
+            }
+            tree.reloadMeta();
+            redoFrom = lastCheckpoint + 1;
+        }
+
+        for (int i = redoFrom; i < records.size(); i++) {
+            WriteAheadLog.Record record = records.get(i);
+            if (record.type == WriteAheadLog.INSERT) {
+                tree.insert(record.product);
+            } else if (record.type == WriteAheadLog.DELETE) {
+                tree.delete(record.id);
+            }
+        }
+        return records.isEmpty() ? 1 : records.get(records.size() - 1).lsn + 1;
+    }
+
+    public synchronized Produto search(int key) {
+        return tree.search(key);
+    }
+
+    public synchronized long size() {
+        return tree.size();
+    }
+
+    public void insert(Produto product) {
+        long lsn;
+        synchronized (this) {
+            tree.insert(product);
+            lsn = wal.appendInsert(product);
+            afterWrite();
+        }
+        commit(lsn);
+    }
+
+    public boolean delete(int key) {
+        long lsn;
+        synchronized (this) {
+            if (!tree.delete(key)) {
+                return false;
+            }
+            lsn = wal.appendDelete(key);
+            afterWrite();
+        }
+        commit(lsn);
+        return true;
+    }
+
+    private void afterWrite() {
+        opsSinceCheckpoint++;
+        if (opsSinceCheckpoint >= checkpointOps || tree.getBufferPool().getDirtyFrames() >= dirtyPageLimit) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void commit(long lsn) {
+        try {
+            wal.commit(lsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void checkpoint() throws IOException {
+        tree.forEachPendingPage(wal::appendPage);
+        wal.appendCheckpoint();
+        wal.sync();
+        tree.flush();
+        wal.truncate();
+        opsSinceCheckpoint = 0;
+        checkpoints++;
+    }
+
+    public synchronized long getCheckpointCount() {
+        return checkpoints;
+    }
+
+    public long getSyncCount() {
+        return wal.getSyncCount();
+    }
+
+    public BufferPool getBufferPool() {
+        return tree.getBufferPool();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            checkpoint();
+            wal.close();
+        } finally {
+            tree.close();
+        }
+    }
+}
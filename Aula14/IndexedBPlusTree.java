@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BPlusTree por id acompanhada de índices secundários por nome e por categoria.
+ * insert e delete alteram o índice primário e os secundários sob o mesmo lock de escrita,
+ * então uma consulta nunca enxerga um produto presente em um índice e ausente em outro.
+ *
+ * Diferente da BPlusTree, inserir um id existente substitui o produto, para que os índices
+ * secundários não fiquem com entradas do produto antigo.
+ */
+public class IndexedBPlusTree {
+    private final BPlusTree primary;
+    private final SecondaryIndex byNome = new SecondaryIndex("nome", Produto::getNome);
+    private final SecondaryIndex byCategoria = new SecondaryIndex("categoria", Produto::getCategoria);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndexedBPlusTree() {
+        this(new BPlusTree());
+    }
+
+    /**
+     * Indexa os produtos que já estão em primary. A partir daqui primary só deve ser
+     * alterada por esta classe.
+     */
+    public IndexedBPlusTree(BPlusTree primary) {
+        this.primary = primary;
+        for (Produto product : primary.rangeSearch(Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            byNome.add(product);
+            byCategoria.add(product);
+        }
+    }
+
+    public void insert(Produto product) {
+        lock.writeLock().lock();
+        try {
+            Produto previous = primary.search(product.getId());
+            if (previous != null) {
+                primary.delete(previous.getId());
+                byNome.remove(previous);
+                byCategoria.remove(previous);
+            }
+            primary.insert(product);
+            byNome.add(product);
+            byCategoria.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean delete(int id) {
+        lock.writeLock().lock();
+        try {
+            Produto product = primary.search(id);
+            if (product == null) {
+                return false;
+            }
+            primary.delete(id);
+            byNome.remove(product);
+            byCategoria.remove(product);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Produto search(int id) {
+        lock.readLock().lock();
+        try {
+            return primary.search(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Produto> findByNome(String nome) {
+        lock.readLock().lock();
+        try {
+            return resolve(byNome.equalTo(nome));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Produto> findByNomePrefix(String prefix) {
+        lock.readLock().lock();
+        try {
+            return resolve(byNome.withPrefix(prefix));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Produto> findByNomeRange(String from, String to) {
+        lock.readLock().lock();
+        try {
+            return resolve(byNome.between(from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Produto> findByCategoria(String categoria) {
+        lock.readLock().lock();
+        try {
+            return resolve(byCategoria.equalTo(categoria));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Produto> findByCategoriaPrefix(String prefix) {
+        lock.readLock().lock();
+        try {
+            return resolve(byCategoria.withPrefix(prefix));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Produto> findByCategoriaRange(String from, String to) {
+        lock.readLock().lock();
+        try {
+            return resolve(byCategoria.between(from, to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return primary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os produtos no índice primário de uma vez, mantendo a ordem do índice secundário.
+     */
+    private List<Produto> resolve(int[] ids) {
+        Produto[] found = primary.searchBatch(ids);
+        List<Produto> result = new ArrayList<>(found.length);
+        for (Produto product : found) {
+            result.add(product);
+        }
+        return result;
+    }
+}
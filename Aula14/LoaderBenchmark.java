@@ -0,0 +1,97 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compara a leitura do arquivo de produtos com readLine + split + trim (o laço antigo do Main)
+ * com o ProductFileLoader sequencial e paralelo, medindo tempo e bytes alocados pela thread
+ * principal (com.sun.management.ThreadMXBean). A última linha carrega o arquivo direto na
+ * BPlusTree, sem lista intermediária.
+ *
+ * Uso: java LoaderBenchmark [quantidade de produtos] [threads]
+ */
+public class LoaderBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path path = Files.createTempFile("produtos", ".txt");
+        try {
+            writeText(path, count);
+            System.out.println("Produtos: " + count + ", arquivo: " + (Files.size(path) >> 20) + " MB, threads: " + threads);
+            System.out.println(String.format("%-22s | %-10s | %-14s", "Leitor", "tempo (ms)", "alocado (MB)"));
+            // A primeira rodada de cada leitor só aquece o JIT
+            for (int round = 0; round < 2; round++) {
+                boolean print = round == 1;
+                measure("split + trim", print, () -> readWithSplit(path).size());
+                measure("loader", print, () -> {
+                    List<Produto> products = new ArrayList<>();
+                    ProductFileLoader.forEach(path, products::add);
+                    return products.size();
+                });
+                measure("loader paralelo", print, () -> {
+                    List<Produto> products = new ArrayList<>();
+                    ProductFileLoader.forEachParallel(path, threads, products::add);
+                    return products.size();
+                });
+                measure("loader -> BPlusTree", print, () -> {
+                    BPlusTree tree = new BPlusTree();
+                    ProductFileLoader.forEach(path, tree::insert);
+                    return tree.size();
+                });
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private interface Load {
+        long run() throws IOException;
+    }
+
+    private static void measure(String name, boolean print, Load load) throws IOException {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        System.gc();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long loaded = load.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long allocated = threadBean.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (print) {
+            System.out.println(String.format("%-22s | %-10d | %-14d (%d produtos)", name, millis, allocated >> 20, loaded));
+        }
+    }
+
+    private static List<Produto> readWithSplit(Path path) throws IOException {
+        List<Produto> products = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length == 3) {
+                    products.add(new Produto(Integer.parseInt(parts[0].trim()), parts[1].trim(), parts[2].trim()));
+                }
+            }
+        }
+        return products;
+    }
+
+    private static void writeText(Path path, int count) throws IOException {
+        Random random = new Random(7);
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < count; i++) {
+                int id = random.nextInt(Integer.MAX_VALUE);
+                out.write(id + ", Produto " + id + ", Categoria " + (id % 20));
+                out.newLine();
+            }
+        }
+    }
+}
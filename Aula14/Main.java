@@ -1,30 +1,38 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.function.Consumer;
 
 public class Main {
 
     public static void main(String[] args) {
         String dataFilePath = "produtos_corrigido.txt";
-        List<Produto> produtos = carregarDadosDoArquivo(dataFilePath);
+
+        BPlusTree bPlusTree = new BPlusTree();
+        bPlusTree.enableBloomFilter(0.01);
+        bPlusTree.enableCache(64);
+        // Cada produto vai para a B+ Tree assim que sai do parser. A lista guarda os mesmos
+        // produtos só porque as outras árvores comparadas abaixo são montadas a partir deles.
+        List<Produto> produtos = new ArrayList<>();
+        long startTimeBPlus = System.nanoTime();
+        carregarDadosDoArquivo(dataFilePath, p -> {
+            bPlusTree.insert(p);
+            produtos.add(p);
+        });
+        long endTimeBPlus = System.nanoTime();
 
         if (produtos.isEmpty()) {
             System.out.println("Nenhum produto encontrado no arquivo. Abortando.");
             return;
         }
 
-        System.out.println("--- Testando B+ Tree (Ordem 3) ---");
-        BPlusTree bPlusTree = new BPlusTree(3);
-        long startTimeBPlus = System.nanoTime();
-        for (Produto p : produtos) {
-            bPlusTree.insert(p);
-        }
-        long endTimeBPlus = System.nanoTime();
+        System.out.println("--- Testando B+ Tree (Ordem " + bPlusTree.getOrder() + ") ---");
         long durationBPlus = (endTimeBPlus - startTimeBPlus) / 1_000_000;
-        System.out.println("Tempo de inserção na B+ Tree: " + durationBPlus + " ms");
+        System.out.println("Tempo de leitura do arquivo e inserção na B+ Tree: " + durationBPlus + " ms");
 
         System.out.println("\nRemovendo 10 produtos aleatórios (ID entre 1000 e 2000) da B+ Tree...");
         Random random = new Random();
@@ -46,11 +54,21 @@ public class Main {
         long endTimeBPlusRemoval = System.nanoTime();
         long durationBPlusRemoval = (endTimeBPlusRemoval - startTimeBPlusRemoval) / 1_000_000;
         System.out.println("Tempo de remoção na B+ Tree: " + durationBPlusRemoval + " ms");
+        System.out.println(bPlusTree.getBloomFilter());
+        System.out.println(bPlusTree.getCache());
+
+        int meio = bPlusTree.size() / 2;
+        System.out.println("Produto na posição " + meio + " por ID: " + bPlusTree.select(meio));
+        System.out.println("Produtos com ID menor que 1500: " + bPlusTree.rank(1500)
+                + ", com ID entre 1000 e 2000: " + bPlusTree.count(1000, 2000));
+        bPlusTree.getStats().registerMBean("BPlusTree");
+        System.out.println("\nEstatísticas da B+ Tree:\n" + bPlusTree.getStats());
 
         System.out.println("\n" + new String(new char[40]).replace('\0', '-') + "\n");
 
-        System.out.println("--- Testando B* Tree (Ordem 3) ---");
-        BStarTree bStarTree = new BStarTree(3);
+        BStarTree bStarTree = new BStarTree();
+        bStarTree.enableBloomFilter(0.01);
+        System.out.println("--- Testando B* Tree (Ordem " + bStarTree.getOrder() + ") ---");
         long startTimeBStar = System.nanoTime();
         for (Produto p : produtos) {
             bStarTree.insert(p);
@@ -78,28 +96,124 @@ public class Main {
         long endTimeBStarRemoval = System.nanoTime();
         long durationBStarRemoval = (endTimeBStarRemoval - startTimeBStarRemoval) / 1_000_000;
         System.out.println("Tempo de remoção na B* Tree: " + durationBStarRemoval + " ms");
+        System.out.println(bStarTree.getBloomFilter());
+        System.out.println("Produtos na B* Tree com ID entre 1000 e 1010: " + bStarTree.rangeSearch(1000, 1010).size()
+                + " (total: " + bStarTree.size() + ")");
+        bStarTree.getStats().registerMBean("BStarTree");
+        System.out.println("\nEstatísticas da B* Tree:\n" + bStarTree.getStats());
+
+        compararOcupacao(produtos);
+
+        System.out.println("\n" + new String(new char[40]).replace('\0', '-') + "\n");
+
+        testarIndicesSecundarios(produtos);
+
+        System.out.println("\n" + new String(new char[40]).replace('\0', '-') + "\n");
+
+        testarSnapshot(bPlusTree, Paths.get("produtos.snap"));
+
+        System.out.println("\n" + new String(new char[40]).replace('\0', '-') + "\n");
+
+        testarBPlusTreePaginada(Paths.get("produtos.idx"), produtos, random);
     }
 
-    private static List<Produto> carregarDadosDoArquivo(String filePath) {
-        List<Produto> produtos = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 3) {
-                    try {
-                        int id = Integer.parseInt(parts[0].trim());
-                        String nome = parts[1].trim();
-                        String categoria = parts[2].trim();
-                        produtos.add(new Produto(id, nome, categoria));
-                    } catch (NumberFormatException e) {
-                        System.err.println("Erro ao parsear ID: " + parts[0] + " na linha: " + line);
-                    }
+    /**
+     * Ocupação e altura das duas árvores com a mesma capacidade de chaves por nó (order - 1
+     * nas duas).
+     */
+    private static void compararOcupacao(List<Produto> produtos) {
+        System.out.println("\nOcupação com " + produtos.size() + " produtos (mesma capacidade por nó):");
+        System.out.println(String.format("%-12s | %-10s | %-8s | %-10s | %-8s", "Capacidade", "B+ altura", "B+ fill", "B* altura", "B* fill"));
+        for (int capacity : new int[] {4, 8, 16}) {
+            BPlusTree plus = new BPlusTree(capacity + 1);
+            BStarTree star = new BStarTree(capacity + 1);
+            for (Produto p : produtos) {
+                plus.insert(p);
+                star.insert(p);
+            }
+            System.out.println(String.format("%-12d | %-10d | %-8.2f | %-10d | %-8.2f", capacity,
+                    plus.getStats().getHeight(), plus.getStats().getAverageFill(),
+                    star.getStats().getHeight(), star.getStats().getAverageFill()));
+        }
+    }
+
+    private static void testarIndicesSecundarios(List<Produto> produtos) {
+        System.out.println("--- Testando índices secundários (nome e categoria) ---");
+        IndexedBPlusTree indexedTree = new IndexedBPlusTree();
+        long startTime = System.nanoTime();
+        for (Produto p : produtos) {
+            indexedTree.insert(p);
+        }
+        long duration = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.println("Tempo de inserção com índices secundários: " + duration + " ms");
+
+        String categoria = produtos.get(0).getCategoria();
+        System.out.println("Produtos na categoria " + categoria + ": " + indexedTree.findByCategoria(categoria).size());
+        String prefixo = produtos.get(0).getNome().substring(0, Math.min(3, produtos.get(0).getNome().length()));
+        List<Produto> porPrefixo = indexedTree.findByNomePrefix(prefixo);
+        System.out.println("Produtos com nome começando por \"" + prefixo + "\": " + porPrefixo.size());
+        for (int i = 0; i < Math.min(3, porPrefixo.size()); i++) {
+            System.out.println("  " + porPrefixo.get(i));
+        }
+    }
+
+    private static void testarSnapshot(BPlusTree tree, Path snapshotPath) {
+        System.out.println("--- Testando snapshot binário da B+ Tree (" + snapshotPath + ") ---");
+        try {
+            long startTime = System.nanoTime();
+            tree.save(snapshotPath);
+            long saveDuration = (System.nanoTime() - startTime) / 1_000_000;
+            startTime = System.nanoTime();
+            BPlusTree loaded = BPlusTree.load(snapshotPath);
+            long loadDuration = (System.nanoTime() - startTime) / 1_000_000;
+            System.out.println("Snapshot gravado em " + saveDuration + " ms (" + Files.size(snapshotPath) + " bytes)");
+            System.out.println("Snapshot carregado em " + loadDuration + " ms: " + loaded.size()
+                    + " produtos, altura " + loaded.getStats().getHeight());
+        } catch (IOException e) {
+            System.err.println("Erro no snapshot: " + e.getMessage());
+        }
+    }
+
+    private static void testarBPlusTreePaginada(Path indexPath, List<Produto> produtos, Random random) {
+        System.out.println("--- Testando B+ Tree paginada (" + indexPath + ") ---");
+        long startTimeOpen = System.nanoTime();
+        try (PagedBPlusTree pagedTree = PagedBPlusTree.open(indexPath)) {
+            long durationOpen = (System.nanoTime() - startTimeOpen) / 1_000_000;
+            if (pagedTree.size() > 0) {
+                System.out.println("Índice reaberto com " + pagedTree.size() + " produtos em " + durationOpen + " ms");
+            } else {
+                long startTimeInsert = System.nanoTime();
+                for (Produto p : produtos) {
+                    pagedTree.insert(p);
                 }
+                long durationInsert = (System.nanoTime() - startTimeInsert) / 1_000_000;
+                System.out.println("Tempo de inserção na B+ Tree paginada: " + durationInsert + " ms");
             }
+            System.out.println("Altura: " + pagedTree.height() + ", páginas de " + pagedTree.getPageSize() + " bytes");
+
+            for (int i = 0; i < 10; i++) {
+                int id = random.nextInt(1001) + 1000;
+                Produto found = pagedTree.search(id);
+                if (found != null) {
+                    System.out.println("Produto encontrado na B+ Tree paginada: " + found);
+                } else {
+                    System.out.println("Produto com ID " + id + " não encontrado na B+ Tree paginada.");
+                }
+            }
+            System.out.println(pagedTree.getBufferPool());
+        } catch (IOException e) {
+            System.err.println("Erro ao acessar o índice paginado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Entrega cada produto do arquivo ao consumer assim que a linha é convertida.
+     */
+    private static void carregarDadosDoArquivo(String filePath, Consumer<Produto> consumer) {
+        try {
+            ProductFileLoader.forEach(Paths.get(filePath), consumer);
         } catch (IOException e) {
             System.err.println("Erro ao ler o arquivo de dados: " + e.getMessage());
         }
-        return produtos;
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+/**
+ * Escolha da ordem das árvores pelo tamanho do vetor de chaves de cada nó.
+ *
+ * Um nó guarda até order - 1 chaves, mas o int[] de chaves do TreeCore tem order posições:
+ * a última recebe a chave que transborda antes do split. Cada posição ocupa KEY_SLOT_BYTES.
+ * forCacheLines escolhe a ordem cujo vetor de chaves tem o tamanho de n linhas de cache, de
+ * modo que a busca em um nó toque poucas linhas (o início do vetor não é alinhado a uma
+ * linha, então ele pode encostar em uma linha a mais); forPageSize devolve a ordem
+ * equivalente a uma página da PagedBPlusTree.
+ *
+ * A ordem padrão usada pelos construtores sem argumentos pode ser trocada com
+ * -Ded2.tree.order=N; o valor de DEFAULT_CACHE_LINES veio do OrderBenchmark.
+ */
+public final class NodeOrder {
+    public static final int CACHE_LINE_BYTES = 64;
+    public static final int KEY_SLOT_BYTES = 4;
+    public static final int DEFAULT_CACHE_LINES = 4;
+
+    private NodeOrder() {
+    }
+
+    public static int forCacheLines(int lines) {
+        if (lines < 1) {
+            throw new IllegalArgumentException("É preciso pelo menos uma linha de cache");
+        }
+        return lines * CACHE_LINE_BYTES / KEY_SLOT_BYTES;
+    }
+
+    public static int forPageSize(int pageSize) {
+        return BPlusPage.internalCapacity(pageSize) + 1;
+    }
+
+    /**
+     * Ordem padrão: -Ded2.tree.order, se definido, ou DEFAULT_CACHE_LINES linhas de cache.
+     */
+    public static int tuned() {
+        int order = Integer.getInteger("ed2.tree.order", forCacheLines(DEFAULT_CACHE_LINES));
+        if (order < 3) {
+            throw new IllegalArgumentException("ed2.tree.order deve ser pelo menos 3: " + order);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,486 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * B+ Tree em memória cujos nós e produtos ficam fora do heap, em ByteBuffers diretos.
+ * Os nós têm tamanho fixo e são alocados em blocos de NODES_PER_CHUNK; um nó é referenciado
+ * por um int (bloco nos bits altos, posição nos baixos) e não por um ponteiro Java. Os produtos
+ * são codificados em um slab onde cada registro novo vai para o fim, e cada folha guarda o
+ * offset (long) do registro.
+ *
+ * Com isso o heap só contém os blocos em si, e o trabalho do GC não cresce com o número de
+ * produtos. A memória direta é limitada por -XX:MaxDirectMemorySize.
+ *
+ * Assim como a PagedBPlusTree, inserir um id existente substitui o produto e a remoção não
+ * rebalanceia as folhas. Registros substituídos ou removidos viram lixo no slab
+ * (getGarbageBytes). Quando o lixo passa de um bloco e da metade dos bytes gravados, o slab é
+ * compactado: os registros vivos são copiados, na ordem das folhas, para blocos novos e os
+ * antigos ficam para o GC liberar. A cópia custa O(bytes vivos) e só acontece depois de
+ * outros tantos bytes de lixo, então o custo por escrita é amortizado O(1); durante ela a
+ * memória direta chega a somar os dois slabs.
+ */
+public class OffHeapBPlusTree {
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+
+    // Cabeçalho do nó: tipo (1), reservado (1), quantidade de chaves (2), próxima folha (4)
+    private static final int TYPE = 0;
+    private static final int COUNT = 2;
+    private static final int NEXT = 4;
+    private static final int HEADER_SIZE = 8;
+
+    private static final int NO_NODE = -1;
+    private static final int NODES_PER_CHUNK_SHIFT = 12;
+    private static final int NODES_PER_CHUNK = 1 << NODES_PER_CHUNK_SHIFT;
+    private static final int SLAB_CHUNK_SIZE = 1 << 24;
+    private static final int MAX_FIELD_BYTES = 0xFFFF;
+    private static final int MAX_HEIGHT = 32;
+
+    private final int order;
+    private final int nodeSize;
+    private final int childrenOffset;
+    private final int valuesOffset;
+
+    private ByteBuffer[] nodeChunks = new ByteBuffer[4];
+    private int nodeCount;
+    private ByteBuffer[] slabChunks = new ByteBuffer[4];
+    private int slabChunkCount;
+    private int slabPosition = SLAB_CHUNK_SIZE;
+    // Bytes de registros gravados no slab atual, vivos ou não
+    private long slabBytes;
+    private long garbageBytes;
+    private int compactions;
+
+    private int root;
+    private int height;
+    private long size;
+
+    // Caminho da raiz até a folha, reutilizado entre operações de escrita
+    private final int[] pathNodes = new int[MAX_HEIGHT];
+    private final int[] pathIndexes = new int[MAX_HEIGHT];
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Cada nó comporta order - 1 chaves, como na BPlusTree.
+     */
+    public OffHeapBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("A ordem deve ser pelo menos 3");
+        }
+        this.order = order;
+        // Uma posição a mais que o máximo permite inserir antes de dividir
+        this.childrenOffset = HEADER_SIZE + order * 4;
+        this.valuesOffset = align8(childrenOffset);
+        this.nodeSize = align8(Math.max(childrenOffset + (order + 1) * 4, valuesOffset + order * 8));
+        this.root = allocateNode(LEAF);
+        this.height = 1;
+    }
+
+    private static int align8(int value) {
+        return (value + 7) & ~7;
+    }
+
+    public Produto search(int key) {
+        int leaf = findLeaf(key);
+        int index = leafSearch(leaf, key);
+        return index >= 0 ? readProduct(value(leaf, index)) : null;
+    }
+
+    public boolean contains(int key) {
+        return leafSearch(findLeaf(key), key) >= 0;
+    }
+
+    public void insert(Produto product) {
+        int key = product.getId();
+        int leaf = descendToLeaf(key);
+        int index = leafSearch(leaf, key);
+        if (index >= 0) {
+            long old = value(leaf, index);
+            garbageBytes += recordSize(old);
+            setValue(leaf, index, writeProduct(product));
+            compactIfNeeded();
+            return;
+        }
+        index = -index - 1;
+        int count = count(leaf);
+        ByteBuffer chunk = chunk(leaf);
+        int base = base(leaf);
+        for (int i = count; i > index; i--) {
+            chunk.putInt(base + HEADER_SIZE + i * 4, chunk.getInt(base + HEADER_SIZE + (i - 1) * 4));
+            chunk.putLong(base + valuesOffset + i * 8, chunk.getLong(base + valuesOffset + (i - 1) * 8));
+        }
+        chunk.putInt(base + HEADER_SIZE + index * 4, key);
+        chunk.putLong(base + valuesOffset + index * 8, writeProduct(product));
+        setCount(leaf, count + 1);
+        size++;
+        if (count + 1 == order) {
+            splitLeaf(leaf);
+        }
+    }
+
+    public boolean delete(int key) {
+        int leaf = descendToLeaf(key);
+        int index = leafSearch(leaf, key);
+        if (index < 0) {
+            return false;
+        }
+        garbageBytes += recordSize(value(leaf, index));
+        int count = count(leaf);
+        ByteBuffer chunk = chunk(leaf);
+        int base = base(leaf);
+        for (int i = index; i < count - 1; i++) {
+            chunk.putInt(base + HEADER_SIZE + i * 4, chunk.getInt(base + HEADER_SIZE + (i + 1) * 4));
+            chunk.putLong(base + valuesOffset + i * 8, chunk.getLong(base + valuesOffset + (i + 1) * 8));
+        }
+        setCount(leaf, count - 1);
+        size--;
+        compactIfNeeded();
+        return true;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Memória direta reservada pelos blocos de nós e pelo slab de produtos.
+     */
+    public long getOffHeapBytes() {
+        long nodeBytes = (long) ((nodeCount + NODES_PER_CHUNK - 1) >>> NODES_PER_CHUNK_SHIFT) * NODES_PER_CHUNK * nodeSize;
+        return nodeBytes + (long) slabChunkCount * SLAB_CHUNK_SIZE;
+    }
+
+    public long getGarbageBytes() {
+        return garbageBytes;
+    }
+
+    /**
+     * Quantas vezes o slab foi compactado.
+     */
+    public int getCompactions() {
+        return compactions;
+    }
+
+    // --- Descida e divisões ---
+
+    private int findLeaf(int key) {
+        int node = root;
+        while (!isLeaf(node)) {
+            node = child(node, findChild(node, key));
+        }
+        return node;
+    }
+
+    /**
+     * Como findLeaf, mas registra o caminho em pathNodes/pathIndexes para as divisões.
+     */
+    private int descendToLeaf(int key) {
+        int node = root;
+        int depth = 0;
+        while (!isLeaf(node)) {
+            int index = findChild(node, key);
+            pathNodes[depth] = node;
+            pathIndexes[depth] = index;
+            depth++;
+            node = child(node, index);
+        }
+        return node;
+    }
+
+    private void splitLeaf(int leaf) {
+        int newLeaf = allocateNode(LEAF);
+        int count = count(leaf);
+        int mid = count / 2;
+        ByteBuffer src = chunk(leaf);
+        int srcBase = base(leaf);
+        ByteBuffer dst = chunk(newLeaf);
+        int dstBase = base(newLeaf);
+        for (int i = mid; i < count; i++) {
+            dst.putInt(dstBase + HEADER_SIZE + (i - mid) * 4, src.getInt(srcBase + HEADER_SIZE + i * 4));
+            dst.putLong(dstBase + valuesOffset + (i - mid) * 8, src.getLong(srcBase + valuesOffset + i * 8));
+        }
+        setCount(newLeaf, count - mid);
+        setCount(leaf, mid);
+        setNext(newLeaf, next(leaf));
+        setNext(leaf, newLeaf);
+        insertIntoParent(height - 2, key(newLeaf, 0), newLeaf);
+    }
+
+    /**
+     * Insere o separador e o novo filho à direita no nó do caminho em level, dividindo-o se
+     * necessário. level == -1 significa que a raiz foi dividida.
+     */
+    private void insertIntoParent(int level, int separator, int right) {
+        if (level < 0) {
+            int newRoot = allocateNode(INTERNAL);
+            setKey(newRoot, 0, separator);
+            setChild(newRoot, 0, root);
+            setChild(newRoot, 1, right);
+            setCount(newRoot, 1);
+            root = newRoot;
+            height++;
+            return;
+        }
+        int parent = pathNodes[level];
+        int index = pathIndexes[level];
+        int count = count(parent);
+        for (int i = count; i > index; i--) {
+            setKey(parent, i, key(parent, i - 1));
+            setChild(parent, i + 1, child(parent, i));
+        }
+        setKey(parent, index, separator);
+        setChild(parent, index + 1, right);
+        setCount(parent, count + 1);
+        if (count + 1 == order) {
+            splitInternal(level);
+        }
+    }
+
+    private void splitInternal(int level) {
+        int node = pathNodes[level];
+        int count = count(node);
+        int mid = count / 2;
+        int promoted = key(node, mid);
+        int newNode = allocateNode(INTERNAL);
+        for (int i = mid + 1; i < count; i++) {
+            setKey(newNode, i - mid - 1, key(node, i));
+        }
+        for (int i = mid + 1; i <= count; i++) {
+            setChild(newNode, i - mid - 1, child(node, i));
+        }
+        setCount(newNode, count - mid - 1);
+        setCount(node, mid);
+        insertIntoParent(level - 1, promoted, newNode);
+    }
+
+    // --- Nós ---
+
+    private int allocateNode(byte type) {
+        int chunkIndex = nodeCount >>> NODES_PER_CHUNK_SHIFT;
+        if (chunkIndex == nodeChunks.length) {
+            nodeChunks = Arrays.copyOf(nodeChunks, nodeChunks.length * 2);
+        }
+        if (nodeChunks[chunkIndex] == null) {
+            nodeChunks[chunkIndex] = ByteBuffer.allocateDirect(NODES_PER_CHUNK * nodeSize)
+                    .order(ByteOrder.nativeOrder());
+        }
+        int node = nodeCount++;
+        ByteBuffer chunk = chunk(node);
+        int base = base(node);
+        chunk.put(base + TYPE, type);
+        chunk.putShort(base + COUNT, (short) 0);
+        chunk.putInt(base + NEXT, NO_NODE);
+        return node;
+    }
+
+    private ByteBuffer chunk(int node) {
+        return nodeChunks[node >>> NODES_PER_CHUNK_SHIFT];
+    }
+
+    private int base(int node) {
+        return (node & (NODES_PER_CHUNK - 1)) * nodeSize;
+    }
+
+    private boolean isLeaf(int node) {
+        return chunk(node).get(base(node) + TYPE) == LEAF;
+    }
+
+    private int count(int node) {
+        return chunk(node).getShort(base(node) + COUNT) & 0xFFFF;
+    }
+
+    private void setCount(int node, int count) {
+        chunk(node).putShort(base(node) + COUNT, (short) count);
+    }
+
+    private int next(int node) {
+        return chunk(node).getInt(base(node) + NEXT);
+    }
+
+    private void setNext(int node, int next) {
+        chunk(node).putInt(base(node) + NEXT, next);
+    }
+
+    private int key(int node, int i) {
+        return chunk(node).getInt(base(node) + HEADER_SIZE + i * 4);
+    }
+
+    private void setKey(int node, int i, int key) {
+        chunk(node).putInt(base(node) + HEADER_SIZE + i * 4, key);
+    }
+
+    private int child(int node, int i) {
+        return chunk(node).getInt(base(node) + childrenOffset + i * 4);
+    }
+
+    private void setChild(int node, int i, int child) {
+        chunk(node).putInt(base(node) + childrenOffset + i * 4, child);
+    }
+
+    private long value(int node, int i) {
+        return chunk(node).getLong(base(node) + valuesOffset + i * 8);
+    }
+
+    private void setValue(int node, int i, long value) {
+        chunk(node).putLong(base(node) + valuesOffset + i * 8, value);
+    }
+
+    /**
+     * Busca binária na folha. Retorna o índice da chave ou -(ponto de inserção) - 1.
+     */
+    private int leafSearch(int leaf, int key) {
+        ByteBuffer chunk = chunk(leaf);
+        int keys = base(leaf) + HEADER_SIZE;
+        int low = 0;
+        int high = (chunk.getShort(base(leaf) + COUNT) & 0xFFFF) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = chunk.getInt(keys + mid * 4);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Índice do filho que cobre a chave: quantidade de separadores menores ou iguais a ela.
+     */
+    private int findChild(int node, int key) {
+        ByteBuffer chunk = chunk(node);
+        int keys = base(node) + HEADER_SIZE;
+        int low = 0;
+        int high = chunk.getShort(base(node) + COUNT) & 0xFFFF;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunk.getInt(keys + mid * 4) <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // --- Slab de produtos ---
+    // Registro: id (4), tamanho do nome (2), nome em UTF-8, tamanho da categoria (2), categoria.
+    // O endereço é (bloco << 32) | posição; um registro nunca atravessa dois blocos.
+
+    private long writeProduct(Produto product) {
+        byte[] nome = encodeField(product.getNome());
+        byte[] categoria = encodeField(product.getCategoria());
+        long address = allocateRecord(8 + nome.length + categoria.length);
+        ByteBuffer chunk = slabChunks[(int) (address >>> 32)];
+        int position = (int) address;
+        chunk.putInt(position, product.getId());
+        chunk.putShort(position + 4, (short) nome.length);
+        chunk.put(position + 6, nome);
+        chunk.putShort(position + 6 + nome.length, (short) categoria.length);
+        chunk.put(position + 8 + nome.length, categoria);
+        return address;
+    }
+
+    /**
+     * Reserva recordSize bytes no fim do slab, abrindo um bloco novo se o atual não comporta o
+     * registro inteiro.
+     */
+    private long allocateRecord(int recordSize) {
+        if (slabPosition + recordSize > SLAB_CHUNK_SIZE) {
+            if (slabChunkCount == slabChunks.length) {
+                slabChunks = Arrays.copyOf(slabChunks, slabChunks.length * 2);
+            }
+            slabChunks[slabChunkCount++] = ByteBuffer.allocateDirect(SLAB_CHUNK_SIZE).order(ByteOrder.nativeOrder());
+            slabPosition = 0;
+        }
+        int position = slabPosition;
+        slabPosition += recordSize;
+        slabBytes += recordSize;
+        return ((long) (slabChunkCount - 1) << 32) | position;
+    }
+
+    private void compactIfNeeded() {
+        if (garbageBytes > SLAB_CHUNK_SIZE && garbageBytes * 2 > slabBytes) {
+            compactSlab();
+        }
+    }
+
+    /**
+     * Copia os registros vivos para blocos novos, percorrendo as folhas encadeadas, e atualiza
+     * os offsets nas folhas. Os blocos antigos deixam de ser referenciados.
+     */
+    private void compactSlab() {
+        ByteBuffer[] oldChunks = slabChunks;
+        slabChunks = new ByteBuffer[4];
+        slabChunkCount = 0;
+        slabPosition = SLAB_CHUNK_SIZE;
+        slabBytes = 0;
+        garbageBytes = 0;
+        int leaf = root;
+        while (!isLeaf(leaf)) {
+            leaf = child(leaf, 0);
+        }
+        for (; leaf != NO_NODE; leaf = next(leaf)) {
+            int count = count(leaf);
+            for (int i = 0; i < count; i++) {
+                long old = value(leaf, i);
+                ByteBuffer src = oldChunks[(int) (old >>> 32)];
+                int recordSize = recordSize(src, (int) old);
+                long address = allocateRecord(recordSize);
+                slabChunks[(int) (address >>> 32)].put((int) address, src, (int) old, recordSize);
+                setValue(leaf, i, address);
+            }
+        }
+        compactions++;
+    }
+
+    private Produto readProduct(long address) {
+        ByteBuffer chunk = slabChunks[(int) (address >>> 32)];
+        int position = (int) address;
+        int id = chunk.getInt(position);
+        int nomeLength = chunk.getShort(position + 4) & 0xFFFF;
+        String nome = readField(chunk, position + 6, nomeLength);
+        int categoriaLength = chunk.getShort(position + 6 + nomeLength) & 0xFFFF;
+        String categoria = readField(chunk, position + 8 + nomeLength, categoriaLength);
+        return new Produto(id, nome, categoria);
+    }
+
+    private int recordSize(long address) {
+        return recordSize(slabChunks[(int) (address >>> 32)], (int) address);
+    }
+
+    private static int recordSize(ByteBuffer chunk, int position) {
+        int nomeLength = chunk.getShort(position + 4) & 0xFFFF;
+        int categoriaLength = chunk.getShort(position + 6 + nomeLength) & 0xFFFF;
+        return 8 + nomeLength + categoriaLength;
+    }
+
+    private String readField(ByteBuffer chunk, int position, int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        chunk.get(position, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeField(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Campo excede " + MAX_FIELD_BYTES + " bytes: " + value);
+        }
+        return bytes;
+    }
+}
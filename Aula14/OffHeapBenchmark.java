@@ -0,0 +1,164 @@
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Random;
+
+/**
+ * Compara a BPlusTree no heap com a OffHeapBPlusTree: tempo de carga, coletas e tempo de GC
+ * durante a carga, heap retido e memória direta ao final, além de uma rodada de buscas. Em
+ * seguida submete a OffHeapBPlusTree a rodadas de churn (metade substituições, metade
+ * remoções seguidas de reinserção) e mostra que o lixo do slab e a memória direta ficam
+ * limitados pela compactação em vez de crescer a cada rodada.
+ *
+ * Uso: java -XX:MaxDirectMemorySize=4g OffHeapBenchmark [quantidade de produtos] [ordem] [rodadas de churn]
+ */
+public class OffHeapBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int order = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        System.out.println("Produtos: " + count + ", ordem: " + order);
+        System.out.println(String.format("%-10s | %-10s | %-8s | %-10s | %-12s | %-12s | %-10s",
+                "Árvore", "carga (ms)", "GCs", "GC (ms)", "heap (MB)", "direta (MB)", "busca (ms)"));
+
+        int[] ids = shuffledIds(count);
+        run("heap", ids, order, false);
+        run("off-heap", ids, order, true);
+        churn(ids, order, rounds);
+    }
+
+    private static void run(String name, int[] ids, int order, boolean offHeap) {
+        collect();
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+
+        BPlusTree heapTree = offHeap ? null : new BPlusTree(order);
+        OffHeapBPlusTree offHeapTree = offHeap ? new OffHeapBPlusTree(order) : null;
+        long start = System.nanoTime();
+        for (int id : ids) {
+            Produto product = new Produto(id, "Produto " + id, "Categoria " + (id % 50));
+            if (offHeap) {
+                offHeapTree.insert(product);
+            } else {
+                heapTree.insert(product);
+            }
+        }
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        long gcs = gcCount() - gcCountBefore;
+        long gcMillis = gcTime() - gcTimeBefore;
+
+        Random random = new Random(42);
+        start = System.nanoTime();
+        for (int i = 0; i < ids.length; i++) {
+            int id = ids[random.nextInt(ids.length)];
+            Produto found = offHeap ? offHeapTree.search(id) : heapTree.search(id);
+            if (found == null || found.getId() != id) {
+                throw new IllegalStateException("Produto " + id + " não encontrado");
+            }
+        }
+        long searchMillis = (System.nanoTime() - start) / 1_000_000;
+
+        collect();
+        long heapMb = (usedHeap() - heapBefore) / (1024 * 1024);
+        long directMb = (usedDirect() - directBefore) / (1024 * 1024);
+        System.out.println(String.format("%-10s | %-10d | %-8d | %-10d | %-12d | %-12d | %-10d",
+                name, loadMillis, gcs, gcMillis, heapMb, directMb, searchMillis));
+
+        // Mantém as árvores vivas até a medição acima
+        Reference.reachabilityFence(heapTree);
+        Reference.reachabilityFence(offHeapTree);
+    }
+
+    /**
+     * Cada rodada faz ids.length escritas na OffHeapBPlusTree carregada: metade substitui o
+     * produto de um id sorteado por outro de nome mais longo, metade remove e reinsere.
+     */
+    private static void churn(int[] ids, int order, int rounds) {
+        OffHeapBPlusTree tree = new OffHeapBPlusTree(order);
+        for (int id : ids) {
+            tree.insert(new Produto(id, "Produto " + id, "Categoria " + (id % 50)));
+        }
+        System.out.println("\nChurn na off-heap, " + ids.length + " escritas por rodada:");
+        System.out.println(String.format("%-8s | %-10s | %-10s | %-12s | %-12s",
+                "Rodada", "ms", "lixo (MB)", "direta (MB)", "compactações"));
+        printChurn(0, 0, tree);
+        Random random = new Random(11);
+        for (int round = 1; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ids.length; i++) {
+                int id = ids[random.nextInt(ids.length)];
+                if ((i & 1) == 0) {
+                    tree.insert(new Produto(id, "Produto " + id + " revisão " + round, "Categoria " + (id % 50)));
+                } else {
+                    tree.delete(id);
+                    tree.insert(new Produto(id, "Produto " + id, "Categoria " + (id % 50)));
+                }
+            }
+            printChurn(round, (System.nanoTime() - start) / 1_000_000, tree);
+        }
+        if (tree.size() != ids.length) {
+            throw new IllegalStateException("Churn mudou o tamanho da árvore: " + tree.size());
+        }
+    }
+
+    private static void printChurn(int round, long millis, OffHeapBPlusTree tree) {
+        System.out.println(String.format("%-8d | %-10d | %-10d | %-12d | %-12d", round, millis,
+                tree.getGarbageBytes() / (1024 * 1024), tree.getOffHeapBytes() / (1024 * 1024),
+                tree.getCompactions()));
+    }
+
+    private static int[] shuffledIds(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        Random random = new Random(7);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        return ids;
+    }
+
+    private static void collect() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcTime() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,150 @@
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Random;
+
+/**
+ * Varre a ordem da BPlusTree e da BStarTree e mede, para cada tamanho de catálogo, a vazão de
+ * inserção, busca pontual, varredura por intervalo (só B+, 100 ids por consulta, com o total
+ * de produtos varridos) e carga mista (50% busca, 50% inserção), além da memória de heap por
+ * produto.
+ *
+ * Uso: java OrderBenchmark [tamanhos separados por vírgula] [ordens separadas por vírgula]
+ */
+public class OrderBenchmark {
+    private static final int RANGE_WIDTH = 100;
+
+    public static void main(String[] args) {
+        int[] sizes = parseList(args.length > 0 ? args[0] : "100000,1000000");
+        int[] orders = parseList(args.length > 1 ? args[1]
+                : "3,5,9," + NodeOrder.forCacheLines(1) + "," + NodeOrder.forCacheLines(2) + ","
+                + NodeOrder.forCacheLines(4) + "," + NodeOrder.forCacheLines(8) + "," + NodeOrder.forCacheLines(16));
+
+        System.out.println(String.format("%-6s | %-9s | %-6s | %-12s | %-12s | %-12s | %-9s | %-12s | %-10s",
+                "Árvore", "produtos", "ordem", "ins/s", "busca/s", "interv./s", "varridos", "misto/s", "bytes/prod"));
+        for (int size : sizes) {
+            int[] ids = shuffledIds(size * 2);
+            for (int order : orders) {
+                run("B+", size, order, ids);
+            }
+            for (int order : orders) {
+                run("B*", size, order, ids);
+            }
+        }
+    }
+
+    /**
+     * Insere os primeiros size ids de ids; a carga mista insere os seguintes.
+     */
+    private static void run(String name, int size, int order, int[] ids) {
+        boolean plus = name.equals("B+");
+        collect();
+        long heapBefore = usedHeap();
+
+        BPlusTree bPlusTree = plus ? new BPlusTree(order) : null;
+        BStarTree bStarTree = plus ? null : new BStarTree(order);
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            Produto product = new Produto(ids[i], "Produto " + ids[i], "Categoria " + (ids[i] % 50));
+            if (plus) {
+                bPlusTree.insert(product);
+            } else {
+                bStarTree.insert(product);
+            }
+        }
+        double insertRate = size / seconds(start);
+
+        collect();
+        double bytesPerProduct = (double) (usedHeap() - heapBefore) / size;
+
+        Random random = new Random(order);
+        int lookups = Math.min(size, 200_000);
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            int id = ids[random.nextInt(size)];
+            Produto found = plus ? bPlusTree.search(id) : bStarTree.search(id);
+            if (found == null) {
+                throw new IllegalStateException("Produto " + id + " não encontrado");
+            }
+        }
+        double searchRate = lookups / seconds(start);
+
+        String rangeRate = "-";
+        String scannedCount = "-";
+        if (plus) {
+            int scans = Math.max(1, lookups / RANGE_WIDTH);
+            long scanned = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < scans; i++) {
+                int from = random.nextInt(size * 2);
+                scanned += bPlusTree.rangeSearch(from, from + RANGE_WIDTH - 1).size();
+            }
+            rangeRate = String.format("%.0f", scans / seconds(start));
+            scannedCount = Long.toString(scanned);
+        }
+
+        int mixed = Math.min(size, 200_000);
+        start = System.nanoTime();
+        for (int i = 0; i < mixed; i++) {
+            if ((i & 1) == 0) {
+                int id = ids[random.nextInt(size)];
+                if (plus) {
+                    bPlusTree.search(id);
+                } else {
+                    bStarTree.search(id);
+                }
+            } else {
+                int id = ids[size + i / 2];
+                Produto product = new Produto(id, "Produto " + id, "Categoria " + (id % 50));
+                if (plus) {
+                    bPlusTree.insert(product);
+                } else {
+                    bStarTree.insert(product);
+                }
+            }
+        }
+        double mixedRate = mixed / seconds(start);
+
+        System.out.println(String.format("%-6s | %-9d | %-6d | %-12.0f | %-12.0f | %-12s | %-9s | %-12.0f | %-10.1f",
+                name, size, order, insertRate, searchRate, rangeRate, scannedCount, mixedRate, bytesPerProduct));
+        Reference.reachabilityFence(bPlusTree);
+        Reference.reachabilityFence(bStarTree);
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static int[] parseList(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+
+    private static int[] shuffledIds(int count) {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        Random random = new Random(7);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        return ids;
+    }
+
+    private static void collect() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
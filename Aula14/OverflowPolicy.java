@@ -0,0 +1,25 @@
+/**
+ * Política de balanceamento do TreeCore: o que fazer quando o nó no fim do caminho da
+ * escrita atual passa de maxKeys chaves (overflow) ou fica abaixo do mínimo (underflow).
+ * As implementações só decidem quais irmãos envolver; a movimentação das chaves é feita por
+ * TreeCore.respread.
+ */
+public interface OverflowPolicy {
+
+    /**
+     * Menor quantidade de chaves de um nó que não seja a raiz.
+     */
+    int minKeys(int maxKeys);
+
+    /**
+     * Resolve o transbordo do nó em tree.nodeAt(tree.pathDepth()), subindo pelo caminho se
+     * necessário. Retorna a quantidade de irmãos consultados.
+     */
+    int overflow(TreeCore tree);
+
+    /**
+     * Resolve o esvaziamento do nó em tree.nodeAt(tree.pathDepth()), subindo pelo caminho se
+     * necessário. A raiz interna sem separadores é removida pelo próprio TreeCore.
+     */
+    void underflow(TreeCore tree);
+}
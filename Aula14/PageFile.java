@@ -0,0 +1,62 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Arquivo único dividido em páginas de tamanho fixo, acessado via FileChannel.
+ * A página N ocupa o intervalo [N * pageSize, (N + 1) * pageSize) do arquivo.
+ */
+public class PageFile implements AutoCloseable {
+    private final FileChannel channel;
+    private final int pageSize;
+
+    public PageFile(Path path, int pageSize) throws IOException {
+        this.pageSize = pageSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getPageCountOnDisk() throws IOException {
+        return (int) (channel.size() / pageSize);
+    }
+
+    /**
+     * Lê a página para dst. Páginas alocadas mas ainda não gravadas são lidas como zeros.
+     */
+    public void readPage(int pageId, ByteBuffer dst) throws IOException {
+        dst.clear();
+        long position = (long) pageId * pageSize;
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, position + dst.position()) < 0) {
+                while (dst.hasRemaining()) {
+                    dst.put((byte) 0);
+                }
+            }
+        }
+        dst.clear();
+    }
+
+    public void writePage(int pageId, ByteBuffer src) throws IOException {
+        ByteBuffer view = src.duplicate();
+        view.clear();
+        long position = (long) pageId * pageSize;
+        while (view.hasRemaining()) {
+            channel.write(view, position + view.position());
+        }
+    }
+
+    public void force() throws IOException {
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,369 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * B+ Tree persistente: cada nó é uma página de tamanho fixo de um único arquivo (ver BPlusPage).
+ * A página 0 guarda os metadados (raiz, altura, quantidade de produtos), de modo que reabrir
+ * um índice existente não exige reconstruí-lo. Todo acesso a páginas passa por um BufferPool
+ * de tamanho fixo, então o heap usado não depende do tamanho do catálogo.
+ *
+ * Diferente da BPlusTree em memória, inserir um id existente substitui o produto. Assim como
+ * nela, a remoção não rebalanceia as folhas.
+ */
+public class PagedBPlusTree implements AutoCloseable {
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    public static final int DEFAULT_FRAME_COUNT = 256;
+
+    private static final int MAGIC = 0x42505452; // "BPTR"
+    private static final int VERSION = 1;
+    private static final int META_PAGE = 0;
+    private static final int META_MAGIC = 0;
+    private static final int META_VERSION = 4;
+    private static final int META_PAGE_SIZE = 8;
+    private static final int META_ROOT = 12;
+    private static final int META_PAGE_COUNT = 16;
+    private static final int META_HEIGHT = 20;
+    private static final int META_SIZE = 24;
+
+    private static final int MAX_HEIGHT = 32;
+
+    private final PageFile file;
+    private final BufferPool pool;
+    private final int pageSize;
+    private final int leafCapacity;
+    private final int internalCapacity;
+
+    private int root;
+    private int pageCount;
+    private int height;
+    private long size;
+
+    // Caminho da raiz até a folha, reutilizado entre operações de escrita
+    private final int[] pathPages = new int[MAX_HEIGHT];
+    private final int[] pathIndexes = new int[MAX_HEIGHT];
+    private int leafDepth;
+
+    private PagedBPlusTree(PageFile file, int frameCount) {
+        this.file = file;
+        this.pool = new BufferPool(file, frameCount);
+        this.pageSize = file.getPageSize();
+        this.leafCapacity = BPlusPage.leafCapacity(pageSize);
+        this.internalCapacity = BPlusPage.internalCapacity(pageSize);
+    }
+
+    public static PagedBPlusTree open(Path path) throws IOException {
+        return open(path, DEFAULT_PAGE_SIZE, DEFAULT_FRAME_COUNT);
+    }
+
+    /**
+     * Abre o índice em path, criando-o vazio se o arquivo não existir.
+     * O buffer pool mantém no máximo frameCount páginas em memória.
+     */
+    public static PagedBPlusTree open(Path path, int pageSize, int frameCount) throws IOException {
+        if (BPlusPage.leafCapacity(pageSize) < 2) {
+            throw new IllegalArgumentException("Página de " + pageSize + " bytes não comporta duas folhas");
+        }
+        PageFile file = new PageFile(path, pageSize);
+        PagedBPlusTree tree = new PagedBPlusTree(file, frameCount);
+        try {
+            if (file.getPageCountOnDisk() == 0) {
+                tree.create();
+            } else {
+                tree.readMeta();
+            }
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        return tree;
+    }
+
+    private void create() throws IOException {
+        pageCount = 2;
+        root = 1;
+        height = 1;
+        size = 0;
+        ByteBuffer leaf = ByteBuffer.allocate(pageSize);
+        BPlusPage.initLeaf(leaf);
+        file.writePage(root, leaf);
+        writeMeta();
+    }
+
+    private void readMeta() throws IOException {
+        ByteBuffer meta = ByteBuffer.allocate(pageSize);
+        file.readPage(META_PAGE, meta);
+        if (meta.getInt(META_MAGIC) != MAGIC || meta.getInt(META_VERSION) != VERSION) {
+            throw new IOException("Arquivo não é um índice B+ Tree paginado");
+        }
+        if (meta.getInt(META_PAGE_SIZE) != pageSize) {
+            throw new IOException("Índice gravado com páginas de " + meta.getInt(META_PAGE_SIZE)
+                    + " bytes, esperado " + pageSize);
+        }
+        root = meta.getInt(META_ROOT);
+        pageCount = meta.getInt(META_PAGE_COUNT);
+        height = meta.getInt(META_HEIGHT);
+        size = meta.getLong(META_SIZE);
+    }
+
+    private void writeMeta() throws IOException {
+        file.writePage(META_PAGE, encodeMeta());
+    }
+
+    private ByteBuffer encodeMeta() {
+        ByteBuffer meta = ByteBuffer.allocate(pageSize);
+        meta.putInt(META_MAGIC, MAGIC);
+        meta.putInt(META_VERSION, VERSION);
+        meta.putInt(META_PAGE_SIZE, pageSize);
+        meta.putInt(META_ROOT, root);
+        meta.putInt(META_PAGE_COUNT, pageCount);
+        meta.putInt(META_HEIGHT, height);
+        meta.putLong(META_SIZE, size);
+        return meta;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public BufferPool getBufferPool() {
+        return pool;
+    }
+
+    // --- Acesso às páginas ---
+
+    private ByteBuffer fetch(int pageId) {
+        return pool.fetchPage(pageId);
+    }
+
+    private void release(int pageId, boolean dirty) {
+        pool.unpinPage(pageId, dirty);
+    }
+
+    private int allocatePage() {
+        return pageCount++;
+    }
+
+    // --- Operações ---
+
+    public Produto search(int key) {
+        int pageId = root;
+        ByteBuffer page = fetch(pageId);
+        while (!BPlusPage.isLeaf(page)) {
+            int child = BPlusPage.child(page, internalCapacity, BPlusPage.findChild(page, key));
+            release(pageId, false);
+            pageId = child;
+            page = fetch(pageId);
+        }
+        int index = BPlusPage.leafSearch(page, key);
+        Produto result = index >= 0 ? BPlusPage.readRecord(page, index) : null;
+        release(pageId, false);
+        return result;
+    }
+
+    public void insert(Produto product) {
+        int key = product.getId();
+        byte[] nome = BPlusPage.encodeField(product.getNome());
+        byte[] categoria = BPlusPage.encodeField(product.getCategoria());
+
+        ByteBuffer leaf = descendToLeaf(key);
+        int depth = leafDepth;
+        int leafId = pathPages[depth];
+        int index = BPlusPage.leafSearch(leaf, key);
+        if (index >= 0) {
+            BPlusPage.writeRecord(leaf, index, key, nome, categoria);
+            release(leafId, true);
+            return;
+        }
+        index = -index - 1;
+        size++;
+
+        if (BPlusPage.count(leaf) < leafCapacity) {
+            BPlusPage.insertRecord(leaf, index, key, nome, categoria);
+            release(leafId, true);
+            return;
+        }
+
+        // Dividir a folha cheia: metade superior vai para uma página nova
+        int newLeafId = allocatePage();
+        ByteBuffer newLeaf = pool.newPage(newLeafId);
+        BPlusPage.initLeaf(newLeaf);
+        int half = (leafCapacity + 1) / 2;
+        BPlusPage.moveRecords(leaf, half, newLeaf, 0, leafCapacity - half);
+        BPlusPage.setCount(newLeaf, leafCapacity - half);
+        BPlusPage.setCount(leaf, half);
+        BPlusPage.setNext(newLeaf, BPlusPage.next(leaf));
+        BPlusPage.setNext(leaf, newLeafId);
+
+        if (index <= half) {
+            BPlusPage.insertRecord(leaf, index, key, nome, categoria);
+        } else {
+            BPlusPage.insertRecord(newLeaf, index - half, key, nome, categoria);
+        }
+        int splitKey = BPlusPage.leafKey(newLeaf, 0);
+        release(leafId, true);
+        release(newLeafId, true);
+
+        propagateSplit(depth, splitKey, newLeafId);
+    }
+
+    /**
+     * Desce até a folha que cobre a chave, registrando o caminho em pathPages/pathIndexes.
+     * Retorna a folha ainda fixada; sua profundidade fica em leafDepth.
+     */
+    private ByteBuffer descendToLeaf(int key) {
+        int depth = 0;
+        int pageId = root;
+        ByteBuffer page = fetch(pageId);
+        while (!BPlusPage.isLeaf(page)) {
+            int childIndex = BPlusPage.findChild(page, key);
+            pathPages[depth] = pageId;
+            pathIndexes[depth] = childIndex;
+            depth++;
+            int child = BPlusPage.child(page, internalCapacity, childIndex);
+            release(pageId, false);
+            pageId = child;
+            page = fetch(pageId);
+        }
+        pathPages[depth] = pageId;
+        leafDepth = depth;
+        return page;
+    }
+
+    private void propagateSplit(int depth, int keyToPropagate, int newChild) {
+        while (depth > 0) {
+            depth--;
+            int parentId = pathPages[depth];
+            int childIndex = pathIndexes[depth];
+            ByteBuffer parent = fetch(parentId);
+            int count = BPlusPage.count(parent);
+
+            if (count < internalCapacity) {
+                BPlusPage.insertSeparator(parent, internalCapacity, childIndex, keyToPropagate, newChild);
+                release(parentId, true);
+                return;
+            }
+
+            // Nó interno cheio: monta a sequência com o novo separador e divide ao meio
+            int[] keys = new int[count + 1];
+            int[] children = new int[count + 2];
+            for (int i = 0, k = 0; i <= count; i++) {
+                if (i == childIndex) {
+                    keys[i] = keyToPropagate;
+                } else {
+                    keys[i] = BPlusPage.internalKey(parent, k++);
+                }
+            }
+            for (int i = 0, c = 0; i <= count + 1; i++) {
+                if (i == childIndex + 1) {
+                    children[i] = newChild;
+                } else {
+                    children[i] = BPlusPage.child(parent, internalCapacity, c++);
+                }
+            }
+
+            int mid = keys.length / 2;
+            int newInternalId = allocatePage();
+            ByteBuffer newInternal = pool.newPage(newInternalId);
+            BPlusPage.initInternal(newInternal);
+
+            writeInternal(parent, keys, children, 0, mid);
+            writeInternal(newInternal, keys, children, mid + 1, keys.length);
+            release(parentId, true);
+            release(newInternalId, true);
+
+            keyToPropagate = keys[mid];
+            newChild = newInternalId;
+        }
+
+        int newRootId = allocatePage();
+        ByteBuffer newRoot = pool.newPage(newRootId);
+        BPlusPage.initInternal(newRoot);
+        BPlusPage.setCount(newRoot, 1);
+        BPlusPage.setInternalKey(newRoot, 0, keyToPropagate);
+        BPlusPage.setChild(newRoot, internalCapacity, 0, root);
+        BPlusPage.setChild(newRoot, internalCapacity, 1, newChild);
+        release(newRootId, true);
+        root = newRootId;
+        height++;
+    }
+
+    private void writeInternal(ByteBuffer page, int[] keys, int[] children, int from, int to) {
+        BPlusPage.setCount(page, to - from);
+        for (int i = from; i < to; i++) {
+            BPlusPage.setInternalKey(page, i - from, keys[i]);
+        }
+        for (int i = from; i <= to; i++) {
+            BPlusPage.setChild(page, internalCapacity, i - from, children[i]);
+        }
+    }
+
+    public boolean delete(int key) {
+        ByteBuffer leaf = descendToLeaf(key);
+        int leafId = pathPages[leafDepth];
+        int index = BPlusPage.leafSearch(leaf, key);
+        if (index < 0) {
+            release(leafId, false);
+            return false;
+        }
+        BPlusPage.removeRecord(leaf, index);
+        release(leafId, true);
+        size--;
+        return true;
+    }
+
+    /**
+     * Grava as páginas sujas e os metadados e força o conteúdo do arquivo para o disco.
+     */
+    public void flush() throws IOException {
+        pool.flushAll();
+        writeMeta();
+        file.force();
+    }
+
+    // --- Suporte ao WriteAheadLog ---
+
+    /**
+     * Visita as imagens que a próxima flush gravaria: páginas sujas do pool e os metadados.
+     */
+    void forEachPendingPage(BufferPool.PageVisitor visitor) throws IOException {
+        pool.forEachDirtyPage(visitor);
+        visitor.visit(META_PAGE, encodeMeta());
+    }
+
+    /**
+     * Recuperação: grava a imagem de uma página direto no arquivo. Só é válido antes de qualquer
+     * acesso pelo pool; depois de instalar a página de metadados, chame reloadMeta.
+     */
+    void installPage(int pageId, ByteBuffer image) throws IOException {
+        file.writePage(pageId, image);
+    }
+
+    void reloadMeta() throws IOException {
+        readMeta();
+    }
+
+    /**
+     * Fecha o arquivo sem gravar as páginas sujas, deixando-o como estava no último checkpoint.
+     */
+    void abandon() throws IOException {
+        file.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * Cache limitado de produtos por id com a política W-TinyLFU: uma janela LRU pequena
+ * (1% da capacidade) recebe as entradas novas, e quem sai dela só entra na área principal
+ * (LRU segmentada: probation e protected) se tiver sido acessado mais vezes que a vítima da
+ * probation. A frequência vem de um count-min sketch de contadores de 4 bits, que é reduzido
+ * à metade periodicamente para esquecer acessos antigos.
+ *
+ * As entradas vivem em vetores paralelos indexados por slot, e a tabela de hash guarda
+ * slot + 1 em endereçamento aberto, sem boxing de ids nem objetos por entrada.
+ *
+ * Coerência: a árvore chama invalidate depois de publicar cada escrita, e put só aceita o
+ * valor se nenhuma invalidação aconteceu desde o getVersion lido antes da busca na árvore.
+ */
+public class ProductCache {
+    private static final int NONE = -1;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+
+    // Entradas: listas duplamente ligadas por fila, do menos (head) ao mais recente (tail)
+    private final int[] keys;
+    private final Produto[] values;
+    private final int[] prev;
+    private final int[] next;
+    private final byte[] queue;
+    private final int[] head = {NONE, NONE, NONE};
+    private final int[] tail = {NONE, NONE, NONE};
+    private final int[] queueSize = new int[3];
+    private int freeSlot;
+
+    // Tabela de hash: slot + 1, ou 0 para vazio
+    private final int[] table;
+    private final int tableMask;
+
+    private final FrequencySketch sketch;
+    private volatile long version;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    public ProductCache(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("O cache precisa de pelo menos 2 entradas");
+        }
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.protectedCapacity = (capacity - windowCapacity) * 8 / 10;
+        // Um slot a mais: put aloca a entrada nova antes de despejar a que sobra
+        int slots = capacity + 1;
+        this.keys = new int[slots];
+        this.values = new Produto[slots];
+        this.prev = new int[slots];
+        this.next = new int[slots];
+        this.queue = new byte[slots];
+        for (int i = 0; i < slots; i++) {
+            next[i] = i + 1 < slots ? i + 1 : NONE;
+        }
+        this.freeSlot = 0;
+
+        int tableSize = Integer.highestOneBit(slots * 2 - 1) << 1;
+        this.table = new int[tableSize];
+        this.tableMask = tableSize - 1;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * Retorna o produto em cache ou null. Todo acesso, acerto ou não, conta na frequência.
+     */
+    public synchronized Produto get(int key) {
+        sketch.increment(key);
+        int slot = lookup(key);
+        if (slot == NONE) {
+            misses++;
+            return null;
+        }
+        hits++;
+        if (queue[slot] == PROBATION) {
+            unlink(slot);
+            append(PROTECTED, slot);
+            if (queueSize[PROTECTED] > protectedCapacity) {
+                int demoted = head[PROTECTED];
+                unlink(demoted);
+                append(PROBATION, demoted);
+            }
+        } else {
+            unlink(slot);
+            append(queue[slot], slot);
+        }
+        return values[slot];
+    }
+
+    /**
+     * Contador de invalidações; ler antes de buscar o valor que será passado a put.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Guarda o produto lido da árvore, a menos que alguma escrita tenha invalidado o cache
+     * depois de expectedVersion (o valor poderia estar desatualizado).
+     */
+    public synchronized void put(Produto product, long expectedVersion) {
+        if (version != expectedVersion) {
+            return;
+        }
+        int key = product.getId();
+        int slot = lookup(key);
+        if (slot != NONE) {
+            values[slot] = product;
+            return;
+        }
+        slot = allocate();
+        keys[slot] = key;
+        values[slot] = product;
+        insertIntoTable(key, slot);
+        append(WINDOW, slot);
+        if (queueSize[WINDOW] > windowCapacity) {
+            admitFromWindow();
+        }
+    }
+
+    public synchronized void invalidate(int key) {
+        version++;
+        int slot = lookup(key);
+        if (slot != NONE) {
+            evict(slot);
+        }
+    }
+
+    public synchronized void clear() {
+        version++;
+        for (int q = WINDOW; q <= PROTECTED; q++) {
+            while (head[q] != NONE) {
+                evict(head[q]);
+            }
+        }
+    }
+
+    /**
+     * A entrada mais antiga da janela disputa com a vítima da probation: fica quem tiver
+     * maior frequência estimada, enquanto a área principal estiver cheia.
+     */
+    private void admitFromWindow() {
+        int candidate = head[WINDOW];
+        unlink(candidate);
+        append(PROBATION, candidate);
+        if (queueSize[PROBATION] + queueSize[PROTECTED] <= capacity - windowCapacity) {
+            return;
+        }
+        int victim = head[PROBATION];
+        if (victim == candidate) {
+            // Probation só tinha o candidato: a vítima sai da protected
+            victim = head[PROTECTED];
+        }
+        if (sketch.frequency(keys[candidate]) > sketch.frequency(keys[victim])) {
+            evict(victim);
+            evictions++;
+        } else {
+            evict(candidate);
+            rejections++;
+        }
+    }
+
+    private void evict(int slot) {
+        unlink(slot);
+        removeFromTable(keys[slot]);
+        values[slot] = null;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    private int allocate() {
+        int slot = freeSlot;
+        freeSlot = next[slot];
+        return slot;
+    }
+
+    private void append(int q, int slot) {
+        queue[slot] = (byte) q;
+        prev[slot] = tail[q];
+        next[slot] = NONE;
+        if (tail[q] != NONE) {
+            next[tail[q]] = slot;
+        } else {
+            head[q] = slot;
+        }
+        tail[q] = slot;
+        queueSize[q]++;
+    }
+
+    private void unlink(int slot) {
+        int q = queue[slot];
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head[q] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tail[q] = prev[slot];
+        }
+        queueSize[q]--;
+    }
+
+    // --- Tabela de hash ---
+
+    private int home(int key) {
+        return (key * 0x9E3779B9) >>> 7 & tableMask;
+    }
+
+    private int lookup(int key) {
+        for (int i = home(key); table[i] != 0; i = (i + 1) & tableMask) {
+            if (keys[table[i] - 1] == key) {
+                return table[i] - 1;
+            }
+        }
+        return NONE;
+    }
+
+    private void insertIntoTable(int key, int slot) {
+        int i = home(key);
+        while (table[i] != 0) {
+            i = (i + 1) & tableMask;
+        }
+        table[i] = slot + 1;
+    }
+
+    private void removeFromTable(int key) {
+        int i = home(key);
+        while (keys[table[i] - 1] != key) {
+            i = (i + 1) & tableMask;
+        }
+        // Remoção com deslocamento para trás, como no BufferPool
+        int j = i;
+        while (true) {
+            j = (j + 1) & tableMask;
+            if (table[j] == 0) {
+                break;
+            }
+            int jHome = home(keys[table[j] - 1]);
+            if (((j - jHome) & tableMask) >= ((j - i) & tableMask)) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+
+    // --- Contadores ---
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return queueSize[WINDOW] + queueSize[PROBATION] + queueSize[PROTECTED];
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ProductCache [capacidade=%d, entradas=%d, hit ratio=%.2f%%, despejos=%d, rejeitados=%d]",
+                capacity, size(), getHitRatio() * 100, evictions, rejections);
+    }
+
+    /**
+     * Count-min sketch com 4 linhas de contadores de 4 bits, 16 por long. Depois de
+     * 10 * capacidade incrementos todos os contadores são divididos por 2.
+     */
+    private static final class FrequencySketch {
+        private final long[] table;
+        private final int counterMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int counters = Integer.highestOneBit(Math.max(16, capacity) * 4 - 1) << 1;
+            this.table = new long[counters / 16];
+            this.counterMask = counters - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        void increment(int key) {
+            long hash = spread(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int counter = (h1 + i * h2) & counterMask;
+                int shift = (counter & 15) << 2;
+                long word = table[counter >>> 4];
+                if (((word >>> shift) & 0xF) < 15) {
+                    table[counter >>> 4] = word + (1L << shift);
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int key) {
+            long hash = spread(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                int counter = (h1 + i * h2) & counterMask;
+                int value = (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 0xF;
+                min = Math.min(min, value);
+            }
+            return min;
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions /= 2;
+        }
+
+        private static long spread(int key) {
+            long z = key * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
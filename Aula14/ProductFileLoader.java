@@ -0,0 +1,399 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Leitor do arquivo de produtos ("id,nome,categoria" por linha, em UTF-8) que trabalha direto
+ * sobre os bytes: não cria a String da linha, o vetor do split nem as substrings do trim.
+ * O id é convertido a partir dos bytes, a categoria é reaproveitada de uma tabela (são poucas
+ * e se repetem) e só o nome gera uma String nova por produto.
+ *
+ * O comportamento é o mesmo do laço antigo com readLine, split(",") e trim(): linhas que
+ * terminam em \n, \r ou \r\n; linha ignorada em silêncio se o split não desse exatamente 3
+ * campos (campos vazios no final são descartados pelo split); e id inválido reportado em
+ * System.err como "Erro ao parsear ID: [campo] na linha: [linha]".
+ */
+public class ProductFileLoader {
+    private static final int BUFFER_BYTES = 1024 * 1024;
+    private static final long INVALID_ID = Long.MIN_VALUE;
+
+    private ProductFileLoader() {
+    }
+
+    /**
+     * Lê o arquivo em sequência, entregando cada produto ao consumer assim que a linha é
+     * convertida. Retorna a quantidade de produtos lidos.
+     */
+    public static long forEach(Path path, Consumer<Produto> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Parser parser = new Parser(new ConcurrentHashMap<>(), consumer, null);
+            parser.parse(channel, 0, channel.size());
+            return parser.products;
+        }
+    }
+
+    /**
+     * Divide o arquivo em threads trechos que começam logo depois de um '\n' e converte cada
+     * trecho em uma thread. Os produtos e as mensagens de erro de cada trecho são guardados e
+     * depois entregues na thread chamadora, na ordem do arquivo.
+     */
+    public static long forEachParallel(Path path, int threads, Consumer<Produto> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = splitOnLines(channel, threads);
+            int chunks = bounds.length - 1;
+            ConcurrentHashMap<String, String> categories = new ConcurrentHashMap<>();
+            List<List<Produto>> products = new ArrayList<>();
+            List<List<String>> errors = new ArrayList<>();
+            Parser[] parsers = new Parser[chunks];
+            for (int i = 0; i < chunks; i++) {
+                products.add(new ArrayList<>());
+                errors.add(new ArrayList<>());
+                parsers[i] = new Parser(categories, products.get(i)::add, errors.get(i));
+            }
+
+            Thread[] workers = new Thread[chunks];
+            IOException[] failures = new IOException[chunks];
+            for (int i = 0; i < chunks; i++) {
+                int chunk = i;
+                workers[i] = new Thread(() -> {
+                    try {
+                        parsers[chunk].parse(channel, bounds[chunk], bounds[chunk + 1]);
+                    } catch (IOException e) {
+                        failures[chunk] = e;
+                    }
+                }, "product-loader-" + i);
+                workers[i].start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Leitura paralela interrompida", e);
+                }
+            }
+
+            long count = 0;
+            for (int i = 0; i < chunks; i++) {
+                if (failures[i] != null) {
+                    throw failures[i];
+                }
+                for (String error : errors.get(i)) {
+                    System.err.println(error);
+                }
+                for (Produto product : products.get(i)) {
+                    consumer.accept(product);
+                }
+                count += products.get(i).size();
+                products.set(i, null);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Limites [bounds[i], bounds[i + 1]) dos trechos; cada limite interno é a posição logo
+     * depois de um '\n', de modo que nenhuma linha (nem um \r\n) fica dividida.
+     */
+    private static long[] splitOnLines(FileChannel channel, int threads) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < threads; i++) {
+            long position = Math.max(bounds.get(bounds.size() - 1), size * i / threads);
+            long bound = size;
+            while (position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                int newline = indexOf(probe.array(), 0, read, (byte) '\n');
+                if (newline >= 0) {
+                    bound = position + newline + 1;
+                    break;
+                }
+                position += read;
+            }
+            if (bound >= size) {
+                break;
+            }
+            if (bound > bounds.get(bounds.size() - 1)) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Parser {
+        private final CategoryTable categories;
+        private final Consumer<Produto> consumer;
+        // null: escreve os erros direto em System.err
+        private final List<String> errors;
+        private byte[] buffer = new byte[BUFFER_BYTES];
+        private boolean skipLineFeed;
+        long products;
+
+        Parser(ConcurrentHashMap<String, String> sharedCategories, Consumer<Produto> consumer, List<String> errors) {
+            this.categories = new CategoryTable(sharedCategories);
+            this.consumer = consumer;
+            this.errors = errors;
+        }
+
+        /**
+         * Converte as linhas do intervalo [from, to) do arquivo, tratando to como fim de arquivo.
+         */
+        void parse(FileChannel channel, long from, long to) throws IOException {
+            long position = from;
+            int filled = 0;
+            while (position < to) {
+                if (filled == buffer.length) {
+                    // Linha maior que o buffer: dobra o buffer e continua lendo
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, filled);
+                    buffer = larger;
+                }
+                ByteBuffer target = ByteBuffer.wrap(buffer, filled, (int) Math.min(buffer.length - filled, to - position));
+                int read = channel.read(target, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+                filled += read;
+
+                int consumed = parseLines(filled);
+                System.arraycopy(buffer, consumed, buffer, 0, filled - consumed);
+                filled -= consumed;
+            }
+            if (filled > 0) {
+                parseLine(0, filled);
+            }
+        }
+
+        /**
+         * Converte as linhas completas de buffer[0, filled) e retorna onde começa a incompleta.
+         */
+        private int parseLines(int filled) {
+            int start = 0;
+            for (int i = 0; i < filled; i++) {
+                byte b = buffer[i];
+                if (b == '\n' || b == '\r') {
+                    if (skipLineFeed && b == '\n' && i == start) {
+                        // \n de um \r\n cujo \r terminou a linha anterior
+                        skipLineFeed = false;
+                        start = i + 1;
+                        continue;
+                    }
+                    parseLine(start, i);
+                    skipLineFeed = b == '\r';
+                    start = i + 1;
+                } else {
+                    skipLineFeed = false;
+                }
+            }
+            return start;
+        }
+
+        private void parseLine(int start, int end) {
+            // Campos do split(","): [start, comma1), [comma1 + 1, comma2), [comma2 + 1, fieldEnd)
+            int comma1 = indexOf(buffer, start, end, (byte) ',');
+            if (comma1 < 0) {
+                return;
+            }
+            int comma2 = indexOf(buffer, comma1 + 1, end, (byte) ',');
+            if (comma2 < 0) {
+                return;
+            }
+            int fieldEnd = indexOf(buffer, comma2 + 1, end, (byte) ',');
+            if (fieldEnd < 0) {
+                fieldEnd = end;
+            }
+            // O split descarta campos vazios no final; sobram 3 só se o terceiro não for vazio
+            // e tudo depois dele forem vírgulas
+            if (fieldEnd == comma2 + 1) {
+                return;
+            }
+            for (int i = fieldEnd; i < end; i++) {
+                if (buffer[i] != ',') {
+                    return;
+                }
+            }
+
+            long id = parseId(start, comma1);
+            if (id == INVALID_ID) {
+                String message = "Erro ao parsear ID: " + decode(start, comma1) + " na linha: " + decode(start, end);
+                if (errors == null) {
+                    System.err.println(message);
+                } else {
+                    errors.add(message);
+                }
+                return;
+            }
+            int nomeStart = trimStart(comma1 + 1, comma2);
+            String nome = decode(nomeStart, trimEnd(nomeStart, comma2));
+            int categoriaStart = trimStart(comma2 + 1, fieldEnd);
+            String categoria = categories.get(buffer, categoriaStart, trimEnd(categoriaStart, fieldEnd));
+            consumer.accept(new Produto((int) id, nome, categoria));
+            products++;
+        }
+
+        /**
+         * Integer.parseInt(campo.trim()) sobre os bytes, com INVALID_ID no lugar da exceção.
+         * Bytes fora do ASCII (dígitos de outros alfabetos) caem no próprio parseInt.
+         */
+        private long parseId(int start, int end) {
+            int from = trimStart(start, end);
+            int to = trimEnd(from, end);
+            if (from == to) {
+                return INVALID_ID;
+            }
+            boolean negative = buffer[from] == '-';
+            if (negative || buffer[from] == '+') {
+                from++;
+                if (from == to) {
+                    return INVALID_ID;
+                }
+            }
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                int digit = buffer[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    if (buffer[i] < 0) {
+                        return parseIdSlow(start, end);
+                    }
+                    return INVALID_ID;
+                }
+                value = value * 10 + digit;
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    return INVALID_ID;
+                }
+            }
+            value = negative ? -value : value;
+            return value > Integer.MAX_VALUE ? INVALID_ID : value;
+        }
+
+        private long parseIdSlow(int start, int end) {
+            try {
+                return Integer.parseInt(decode(start, end).trim());
+            } catch (NumberFormatException e) {
+                return INVALID_ID;
+            }
+        }
+
+        // String.trim remove caracteres <= ' ', que em UTF-8 são sempre um byte só
+        private int trimStart(int start, int end) {
+            while (start < end && (buffer[start] & 0xFF) <= ' ') {
+                start++;
+            }
+            return start;
+        }
+
+        private int trimEnd(int start, int end) {
+            while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+                end--;
+            }
+            return end;
+        }
+
+        private String decode(int start, int end) {
+            return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Tabela de endereçamento aberto dos bytes da categoria para a String já criada. Cada
+     * Parser tem a sua; numa falta, a String é canonizada no mapa compartilhado, para que
+     * todas as threads devolvam a mesma instância.
+     */
+    private static final class CategoryTable {
+        private final ConcurrentHashMap<String, String> shared;
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int size;
+
+        CategoryTable(ConcurrentHashMap<String, String> shared) {
+            this.shared = shared;
+        }
+
+        String get(byte[] bytes, int start, int end) {
+            int mask = keys.length - 1;
+            int i = hash(bytes, start, end) & mask;
+            while (keys[i] != null) {
+                if (equals(keys[i], bytes, start, end)) {
+                    return values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            String value = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            String canonical = shared.putIfAbsent(value, value);
+            value = canonical != null ? canonical : value;
+            keys[i] = Arrays.copyOfRange(bytes, start, end);
+            values[i] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return value;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != null) {
+                    int i = hash(oldKeys[j], 0, oldKeys[j].length) & mask;
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        private static int hash(byte[] bytes, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + bytes[i];
+            }
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean equals(byte[] key, byte[] bytes, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != bytes[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
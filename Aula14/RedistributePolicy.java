@@ -0,0 +1,88 @@
+/**
+ * Balanceamento da B* Tree. No transbordo, se um irmão adjacente tem espaço, as chaves dos
+ * dois são repartidas por igual; se os irmãos estão cheios, o nó e um deles viram três nós
+ * com 2/3 de ocupação (split 2-para-3). A raiz, que não tem irmãos, é dividida em duas.
+ *
+ * O mínimo é 2/3 da capacidade. Abaixo dele o nó pega chaves de um irmão que esteja acima do
+ * mínimo; se nenhum puder ceder, ele e dois irmãos viram dois nós (merge 3-para-2). Os dois
+ * filhos da raiz são fundidos quando cabem em um nó.
+ */
+public class RedistributePolicy implements OverflowPolicy {
+
+    @Override
+    public int minKeys(int maxKeys) {
+        return 2 * maxKeys / 3;
+    }
+
+    @Override
+    public int overflow(TreeCore tree) {
+        int siblingsVisited = 0;
+        for (int depth = tree.pathDepth(); tree.nodeAt(depth).count > tree.getMaxKeys(); depth--) {
+            if (depth == 0) {
+                tree.getStats().recordSplit();
+                tree.respread(tree.growRoot(), 0, 1, 2);
+                break;
+            }
+            TreeCore.Internal parent = tree.pathNode(depth - 1);
+            int index = tree.pathIndex(depth - 1);
+            boolean hasLeft = index > 0;
+            boolean hasRight = index < parent.count;
+            if (hasLeft) {
+                siblingsVisited++;
+                if (parent.children[index - 1].count < tree.getMaxKeys()) {
+                    tree.getStats().recordRedistribution();
+                    tree.respread(parent, index - 1, 2, 2);
+                    return siblingsVisited;
+                }
+            }
+            if (hasRight) {
+                siblingsVisited++;
+                if (parent.children[index + 1].count < tree.getMaxKeys()) {
+                    tree.getStats().recordRedistribution();
+                    tree.respread(parent, index, 2, 2);
+                    return siblingsVisited;
+                }
+            }
+            tree.getStats().recordSplit();
+            tree.respread(parent, hasRight ? index : index - 1, 2, 3);
+        }
+        return siblingsVisited;
+    }
+
+    @Override
+    public void underflow(TreeCore tree) {
+        int minKeys = minKeys(tree.getMaxKeys());
+        for (int depth = tree.pathDepth(); depth > 0 && tree.nodeAt(depth).count < minKeys; depth--) {
+            TreeCore.Internal parent = tree.pathNode(depth - 1);
+            int index = tree.pathIndex(depth - 1);
+            int children = parent.count + 1;
+            if (index > 0 && parent.children[index - 1].count > minKeys) {
+                tree.getStats().recordRedistribution();
+                tree.respread(parent, index - 1, 2, 2);
+                return;
+            }
+            if (index < children - 1 && parent.children[index + 1].count > minKeys) {
+                tree.getStats().recordRedistribution();
+                tree.respread(parent, index, 2, 2);
+                return;
+            }
+            if (children >= 3) {
+                int first = Math.max(0, Math.min(index - 1, children - 3));
+                if (!tree.fits(parent, first, 3, 2)) {
+                    // Na ponta, o terceiro nó não é vizinho e pode ter chaves de sobra
+                    tree.getStats().recordRedistribution();
+                    tree.respread(parent, first, 3, 3);
+                    return;
+                }
+                tree.getStats().recordMerge();
+                tree.respread(parent, first, 3, 2);
+            } else if (tree.fits(parent, 0, 2, 1)) {
+                tree.getStats().recordMerge();
+                tree.respread(parent, 0, 2, 1);
+            } else {
+                // Dois filhos da raiz que não cabem em um nó ficam como estão
+                return;
+            }
+        }
+    }
+}
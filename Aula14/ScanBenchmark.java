@@ -0,0 +1,83 @@
+import java.util.Random;
+import java.util.stream.StreamSupport;
+
+/**
+ * Varreduras por faixa na BPlusTree e na BStarTree carregadas com os mesmos ids em ordem
+ * aleatória e a mesma capacidade de chaves por nó. Com a ocupação maior da B*, cada folha
+ * lida entrega mais produtos. A última coluna soma os ids com o Spliterator paralelo da B*.
+ *
+ * Uso: java ScanBenchmark [quantidade de produtos] [largura da faixa] [ordem]
+ */
+public class ScanBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int order = args.length > 2 ? Integer.parseInt(args[2]) : NodeOrder.tuned();
+
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        Random random = new Random(7);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        BPlusTree plusTree = new BPlusTree(order);
+        BStarTree starTree = new BStarTree(order);
+        for (int id : ids) {
+            Produto product = new Produto(id, "Produto " + id, "Categoria " + (id % 50));
+            plusTree.insert(product);
+            starTree.insert(product);
+        }
+
+        System.out.println("Produtos: " + count + ", faixa: " + width + ", chaves por nó: " + (order - 1));
+        System.out.println(String.format("%-7s | %-9s | %-13s | %-12s | %-14s | %-14s",
+                "Árvore", "folhas", "produtos/folha", "faixas/s", "varredura (ms)", "paralela (ms)"));
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            measure("B+", plusTree.getStats().refreshShape().getLeafCount(), count, width, print,
+                    (from, to) -> plusTree.rangeSearch(from, to).size(), -1);
+            long start = System.nanoTime();
+            long sum = StreamSupport.stream(starTree.spliterator(), true).mapToLong(Produto::getId).sum();
+            long parallelMillis = (System.nanoTime() - start) / 1_000_000;
+            if (sum != (long) count * (count - 1) / 2) {
+                throw new IllegalStateException("Soma paralela incorreta: " + sum);
+            }
+            measure("B*", starTree.getStats().refreshShape().getLeafCount(), count, width, print,
+                    (from, to) -> starTree.rangeSearch(from, to).size(), parallelMillis);
+        }
+    }
+
+    private interface RangeScan {
+        int scan(int from, int to);
+    }
+
+    private static void measure(String name, long leaves, int count, int width, boolean print,
+                                RangeScan rangeScan, long parallelMillis) {
+        Random random = new Random(42);
+        int scans = 20_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < scans; i++) {
+            int from = random.nextInt(count - width);
+            if (rangeScan.scan(from, from + width - 1) != width) {
+                throw new IllegalStateException("Faixa incompleta em " + from);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        int scanned = rangeScan.scan(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        long fullMillis = (System.nanoTime() - start) / 1_000_000;
+        if (scanned != count) {
+            throw new IllegalStateException("Varredura completa leu " + scanned + " produtos");
+        }
+        if (print) {
+            System.out.println(String.format("%-7s | %-9d | %-13.1f | %-12.0f | %-14d | %-14s", name, leaves,
+                    (double) count / leaves, scans / seconds, fullMillis, parallelMillis < 0 ? "-" : String.valueOf(parallelMillis)));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Índice ordenado por um campo texto do Produto, apontando para ids. As entradas são pares
+ * (valor, id) em ordem de valor e depois de id, então igualdade, prefixo e intervalo viram
+ * uma faixa contígua do conjunto ordenado.
+ *
+ * Não é thread-safe: a IndexedBPlusTree faz a sincronização junto com o índice primário.
+ */
+public class SecondaryIndex {
+    private final String name;
+    private final Function<Produto, String> field;
+    private final TreeSet<Entry> entries = new TreeSet<>();
+
+    public SecondaryIndex(String name, Function<Produto, String> field) {
+        this.name = name;
+        this.field = field;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    void add(Produto product) {
+        entries.add(new Entry(field.apply(product), product.getId()));
+    }
+
+    void remove(Produto product) {
+        entries.remove(new Entry(field.apply(product), product.getId()));
+    }
+
+    /**
+     * Ids dos produtos cujo campo é exatamente value, em ordem de id.
+     */
+    public int[] equalTo(String value) {
+        return ids(entries.subSet(new Entry(value, Integer.MIN_VALUE), true, new Entry(value, Integer.MAX_VALUE), true));
+    }
+
+    /**
+     * Ids dos produtos cujo campo começa com prefix, em ordem de campo e depois de id.
+     */
+    public int[] withPrefix(String prefix) {
+        NavigableSet<Entry> tail = entries.tailSet(new Entry(prefix, Integer.MIN_VALUE), true);
+        int[] ids = new int[8];
+        int count = 0;
+        for (Entry entry : tail) {
+            if (!entry.value.startsWith(prefix)) {
+                break;
+            }
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = entry.id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Ids dos produtos cujo campo está em [from, to], em ordem de campo e depois de id.
+     */
+    public int[] between(String from, String to) {
+        if (from.compareTo(to) > 0) {
+            return new int[0];
+        }
+        return ids(entries.subSet(new Entry(from, Integer.MIN_VALUE), true, new Entry(to, Integer.MAX_VALUE), true));
+    }
+
+    private static int[] ids(Collection<Entry> range) {
+        int[] ids = new int[range.size()];
+        Iterator<Entry> iterator = range.iterator();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = iterator.next().id;
+        }
+        return ids;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final String value;
+        final int id;
+
+        Entry(String value, int id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byValue = value.compareTo(other.value);
+            return byValue != 0 ? byValue : Integer.compare(id, other.id);
+        }
+    }
+}
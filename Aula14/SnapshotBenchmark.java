@@ -0,0 +1,91 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compara as duas formas de subir a BPlusTree do zero: reler um arquivo texto no formato de
+ * produtos_corrigido.txt com String.split e inserir produto a produto (como o Main faz),
+ * ou carregar um snapshot binário gravado por BPlusTree.save.
+ *
+ * Uso: java SnapshotBenchmark [quantidade de produtos]
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path text = Files.createTempFile("produtos", ".txt");
+        Path snapshot = Files.createTempFile("produtos", ".snap");
+        try {
+            writeText(text, count);
+
+            long start = System.nanoTime();
+            BPlusTree fromText = loadText(text);
+            long textMillis = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            fromText.save(snapshot);
+            long saveMillis = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            BPlusTree fromSnapshot = BPlusTree.load(snapshot);
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+
+            Random random = new Random(42);
+            for (int i = 0; i < 100_000; i++) {
+                int id = random.nextInt(count);
+                Produto expected = fromText.search(id);
+                Produto found = fromSnapshot.search(id);
+                if (found == null || !found.getNome().equals(expected.getNome())) {
+                    throw new IllegalStateException("Produto " + id + " difere no snapshot");
+                }
+            }
+
+            System.out.println("Produtos: " + count + ", ordem: " + fromSnapshot.getOrder());
+            System.out.println(String.format("%-22s | %-10s | %-10s", "Etapa", "tempo (ms)", "arquivo (MB)"));
+            System.out.println(String.format("%-22s | %-10d | %-10d", "texto + insert", textMillis, Files.size(text) >> 20));
+            System.out.println(String.format("%-22s | %-10d | %-10d", "save (snapshot)", saveMillis, Files.size(snapshot) >> 20));
+            System.out.println(String.format("%-22s | %-10d | %-10s", "load (snapshot)", loadMillis, "-"));
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static void writeText(Path path, int count) throws IOException {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+        Random random = new Random(7);
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int id : ids) {
+                out.write(id + ", Produto " + id + ", Categoria " + (id % 50));
+                out.newLine();
+            }
+        }
+    }
+
+    private static BPlusTree loadText(Path path) throws IOException {
+        BPlusTree tree = new BPlusTree();
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length == 3) {
+                    tree.insert(new Produto(Integer.parseInt(parts[0].trim()), parts[1].trim(), parts[2].trim()));
+                }
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Balanceamento clássico da B+ Tree: o nó que transborda é dividido ao meio e o nó que fica
+ * abaixo da metade pega chaves de um irmão ou é fundido com ele.
+ */
+public class SplitPolicy implements OverflowPolicy {
+
+    @Override
+    public int minKeys(int maxKeys) {
+        return maxKeys / 2;
+    }
+
+    @Override
+    public int overflow(TreeCore tree) {
+        for (int depth = tree.pathDepth(); tree.nodeAt(depth).count > tree.getMaxKeys(); depth--) {
+            tree.getStats().recordSplit();
+            if (depth == 0) {
+                tree.respread(tree.growRoot(), 0, 1, 2);
+                break;
+            }
+            tree.respread(tree.pathNode(depth - 1), tree.pathIndex(depth - 1), 1, 2);
+        }
+        return 0;
+    }
+
+    @Override
+    public void underflow(TreeCore tree) {
+        int minKeys = minKeys(tree.getMaxKeys());
+        for (int depth = tree.pathDepth(); depth > 0 && tree.nodeAt(depth).count < minKeys; depth--) {
+            TreeCore.Internal parent = tree.pathNode(depth - 1);
+            int index = tree.pathIndex(depth - 1);
+            if (index > 0 && parent.children[index - 1].count > minKeys) {
+                tree.getStats().recordRedistribution();
+                tree.respread(parent, index - 1, 2, 2);
+                return;
+            }
+            if (index < parent.count && parent.children[index + 1].count > minKeys) {
+                tree.getStats().recordRedistribution();
+                tree.respread(parent, index, 2, 2);
+                return;
+            }
+            // Os dois estão no mínimo: juntos têm no máximo 2 * minKeys - 1 <= maxKeys chaves
+            tree.getStats().recordMerge();
+            tree.respread(parent, index > 0 ? index - 1 : index, 2, 1);
+        }
+    }
+}
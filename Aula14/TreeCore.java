@@ -0,0 +1,895 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Núcleo comum da BPlusTree e da BStarTree: índice de produtos por id com nós de vetores
+ * primitivos (int[] de chaves com busca binária) e balanceamento decidido por uma
+ * OverflowPolicy. Cada nó guarda no máximo maxKeys chaves fora de uma escrita; os vetores
+ * têm uma posição a mais para o transbordo. Nós internos guardam o tamanho de cada
+ * subárvore, usado por rank, select e count.
+ *
+ * As escritas reaproveitam uma pilha de caminho (pathNodes/pathIndexes) e buffers de
+ * redistribuição do próprio núcleo, então precisam ser serializadas por quem o usa.
+ *
+ * No modo copy-on-write cada escrita recebe uma versão: um nó só é copiado se ainda não foi
+ * copiado por ela, e a raiz nova é publicada no fim (root é volatile). Leituras não usam
+ * lock. Nesse modo as folhas não são encadeadas; fora dele, next liga cada folha à seguinte
+ * em ordem de id.
+ */
+public class TreeCore {
+    private final int maxKeys;
+    private final boolean copyOnWrite;
+    private final OverflowPolicy policy;
+    private final TreeStats stats = new TreeStats(this::computeShape);
+    private volatile Node root;
+
+    // Estado da escrita em andamento
+    private Node writeRoot;
+    private long writeVersion;
+    private Internal[] pathNodes = new Internal[8];
+    private int[] pathIndexes = new int[8];
+    private int pathDepth;
+
+    // Nós e conteúdo de até três irmãos juntados por respread
+    private final Node[] scratchNodes = new Node[3];
+    private final int[] scratchKeys;
+    private final Object[] scratchItems;
+    private final int[] scratchSizes;
+
+    static abstract class Node {
+        final int[] keys;
+        int count;
+        // Altura do nó: 0 nas folhas
+        final int level;
+        long version;
+
+        Node(int capacity, int level, long version) {
+            this.keys = new int[capacity];
+            this.level = level;
+            this.version = version;
+        }
+
+        final boolean isLeaf() {
+            return level == 0;
+        }
+    }
+
+    static final class Leaf extends Node {
+        final Produto[] values;
+        Leaf next;
+
+        Leaf(int maxKeys, long version) {
+            super(maxKeys + 1, 0, version);
+            this.values = new Produto[maxKeys + 1];
+        }
+    }
+
+    static final class Internal extends Node {
+        final Node[] children;
+        // sizes[i]: quantidade de produtos na subárvore de children[i]
+        final int[] sizes;
+
+        Internal(int maxKeys, int level, long version) {
+            super(maxKeys + 1, level, version);
+            this.children = new Node[maxKeys + 2];
+            this.sizes = new int[maxKeys + 2];
+        }
+    }
+
+    public TreeCore(int maxKeys, boolean copyOnWrite, OverflowPolicy policy) {
+        if (maxKeys < 2) {
+            throw new IllegalArgumentException("Um nó precisa de pelo menos 2 chaves: " + maxKeys);
+        }
+        this.maxKeys = maxKeys;
+        this.copyOnWrite = copyOnWrite;
+        this.policy = policy;
+        this.root = new Leaf(maxKeys, 0);
+        this.scratchKeys = new int[3 * (maxKeys + 2)];
+        this.scratchItems = new Object[3 * (maxKeys + 2)];
+        this.scratchSizes = new int[3 * (maxKeys + 2)];
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public TreeStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Raiz publicada. Fica imutável no modo copy-on-write.
+     */
+    Node root() {
+        return root;
+    }
+
+    // ---------------------------------------------------------------- leitura
+
+    /**
+     * Primeiro filho cujo intervalo pode conter key: os separadores <= key ficam à esquerda.
+     */
+    static int childIndex(Node node, int key) {
+        int[] keys = node.keys;
+        int low = 0;
+        int high = node.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Posição da primeira chave >= key.
+     */
+    static int lowerBound(Node node, long key) {
+        int[] keys = node.keys;
+        int low = 0;
+        int high = node.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static Leaf findLeaf(Node node, int key) {
+        while (!node.isLeaf()) {
+            node = ((Internal) node).children[childIndex(node, key)];
+        }
+        return (Leaf) node;
+    }
+
+    static Produto search(Node root, int key) {
+        Leaf leaf = findLeaf(root, key);
+        int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+        return index >= 0 ? leaf.values[index] : null;
+    }
+
+    /**
+     * Quantidade de nós de uma descida da raiz até uma folha.
+     */
+    static int height(Node root) {
+        return root.level + 1;
+    }
+
+    static int subtreeSize(Node node) {
+        if (node.isLeaf()) {
+            return node.count;
+        }
+        int[] sizes = ((Internal) node).sizes;
+        int size = 0;
+        for (int i = 0; i <= node.count; i++) {
+            size += sizes[i];
+        }
+        return size;
+    }
+
+    /**
+     * Produtos com id em [from, to], em ordem. Fora do modo copy-on-write desce até a folha
+     * de from e segue o encadeamento; no modo copy-on-write desce só pelos filhos cujo
+     * intervalo cruza a faixa.
+     */
+    static void rangeSearch(Node root, boolean chained, int from, int to, List<Produto> result) {
+        if (from > to) {
+            return;
+        }
+        if (!chained) {
+            collectRange(root, from, to, result);
+            return;
+        }
+        Node node = root;
+        while (!node.isLeaf()) {
+            // Chaves iguais a from podem ter ficado à esquerda de um separador igual a elas
+            node = ((Internal) node).children[lowerBound(node, from)];
+        }
+        Leaf leaf = (Leaf) node;
+        int index = lowerBound(leaf, from);
+        while (leaf != null) {
+            for (; index < leaf.count; index++) {
+                if (leaf.keys[index] > to) {
+                    return;
+                }
+                result.add(leaf.values[index]);
+            }
+            leaf = leaf.next;
+            index = 0;
+        }
+    }
+
+    private static void collectRange(Node node, int from, int to, List<Produto> result) {
+        if (node.isLeaf()) {
+            Leaf leaf = (Leaf) node;
+            for (int i = lowerBound(leaf, from); i < leaf.count && leaf.keys[i] <= to; i++) {
+                result.add(leaf.values[i]);
+            }
+            return;
+        }
+        Internal internal = (Internal) node;
+        int first = lowerBound(internal, from);
+        int last = childIndex(internal, to);
+        for (int i = first; i <= last; i++) {
+            collectRange(internal.children[i], from, to, result);
+        }
+    }
+
+    /**
+     * Quantidade de produtos com id menor que bound, pelos tamanhos das subárvores.
+     */
+    static int countBelow(Node node, long bound) {
+        int count = 0;
+        while (!node.isLeaf()) {
+            Internal internal = (Internal) node;
+            // Os filhos antes do primeiro separador >= bound só têm chaves menores que ele
+            int child = lowerBound(internal, bound);
+            for (int i = 0; i < child; i++) {
+                count += internal.sizes[i];
+            }
+            node = internal.children[child];
+        }
+        return count + lowerBound(node, bound);
+    }
+
+    static Produto select(Node node, int index) {
+        if (index < 0 || index >= subtreeSize(node)) {
+            throw new IndexOutOfBoundsException("Posição " + index + " fora da árvore");
+        }
+        while (!node.isLeaf()) {
+            Internal internal = (Internal) node;
+            int child = 0;
+            while (index >= internal.sizes[child]) {
+                index -= internal.sizes[child];
+                child++;
+            }
+            node = internal.children[child];
+        }
+        return ((Leaf) node).values[index];
+    }
+
+    /**
+     * Busca as chaves de sorted, que vem ordenado com a chave nos 32 bits altos e a posição
+     * original nos baixos. Chaves seguidas que caem na mesma folha são resolvidas sem descer
+     * de novo, e a próxima descida recomeça do ancestral mais fundo cujo intervalo contém a
+     * chave, não da raiz.
+     */
+    static void searchSorted(Node root, long[] sorted, Produto[] result) {
+        // path[d] é o nó da profundidade d na descida atual e upper[d] o limite (exclusivo)
+        // das chaves que cabem nele; as chaves crescem, então o limite inferior não muda nada
+        Node[] path = new Node[root.level + 1];
+        long[] upper = new long[root.level + 1];
+        path[0] = root;
+        upper[0] = Long.MAX_VALUE;
+        int depth = 0;
+        int i = 0;
+        while (i < sorted.length) {
+            int key = (int) (sorted[i] >> 32);
+            while (key >= upper[depth]) {
+                depth--;
+            }
+            for (; depth < root.level; depth++) {
+                Node node = path[depth];
+                int child = childIndex(node, key);
+                upper[depth + 1] = child < node.count ? node.keys[child] : upper[depth];
+                path[depth + 1] = ((Internal) node).children[child];
+            }
+            Leaf leaf = (Leaf) path[depth];
+            while (i < sorted.length && (sorted[i] >> 32) < upper[depth]) {
+                int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, (int) (sorted[i] >> 32));
+                result[(int) sorted[i]] = index >= 0 ? leaf.values[index] : null;
+                i++;
+            }
+        }
+    }
+
+    static Leaf leftmostLeaf(Node node) {
+        while (!node.isLeaf()) {
+            node = ((Internal) node).children[0];
+        }
+        return (Leaf) node;
+    }
+
+    static Leaf rightmostLeaf(Node node) {
+        while (!node.isLeaf()) {
+            node = ((Internal) node).children[node.count];
+        }
+        return (Leaf) node;
+    }
+
+    // ---------------------------------------------------------------- escrita
+
+    /**
+     * Insere product. Retorna os nós visitados: o caminho até a folha mais os irmãos
+     * consultados pela política.
+     */
+    int insert(Produto product) {
+        beginWrite();
+        int nodesVisited = insertInWrite(product);
+        endWrite();
+        return nodesVisited;
+    }
+
+    /**
+     * Insere todos os produtos em uma única escrita: no modo copy-on-write cada nó é copiado
+     * no máximo uma vez e a raiz é publicada só no fim.
+     */
+    void insertAll(Produto[] products) {
+        beginWrite();
+        for (Produto product : products) {
+            insertInWrite(product);
+        }
+        endWrite();
+    }
+
+    private int insertInWrite(Produto product) {
+        int key = product.getId();
+        Leaf leaf = descendForWrite(key);
+        int index = childIndex(leaf, key);
+        System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.count - index);
+        System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.count - index);
+        leaf.keys[index] = key;
+        leaf.values[index] = product;
+        leaf.count++;
+        for (int i = 0; i < pathDepth; i++) {
+            pathNodes[i].sizes[pathIndexes[i]]++;
+        }
+        int nodesVisited = pathDepth + 1;
+        if (leaf.count > maxKeys) {
+            nodesVisited += policy.overflow(this);
+        }
+        return nodesVisited;
+    }
+
+    /**
+     * Remove o produto com o id informado e rebalanceia pela política. A raiz interna que
+     * fica sem separadores é substituída pelo único filho.
+     */
+    boolean delete(int key) {
+        // No modo copy-on-write evita copiar o caminho de uma chave ausente
+        if (copyOnWrite && search(root, key) == null) {
+            return false;
+        }
+        beginWrite();
+        Leaf leaf = descendForWrite(key);
+        int index = Arrays.binarySearch(leaf.keys, 0, leaf.count, key);
+        if (index < 0) {
+            writeRoot = null;
+            return false;
+        }
+        System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.count - index - 1);
+        System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.count - index - 1);
+        leaf.count--;
+        leaf.values[leaf.count] = null;
+        for (int i = 0; i < pathDepth; i++) {
+            pathNodes[i].sizes[pathIndexes[i]]--;
+        }
+        if (pathDepth > 0 && leaf.count < policy.minKeys(maxKeys)) {
+            policy.underflow(this);
+        }
+        while (!writeRoot.isLeaf() && writeRoot.count == 0) {
+            writeRoot = ((Internal) writeRoot).children[0];
+        }
+        endWrite();
+        return true;
+    }
+
+    private void beginWrite() {
+        writeVersion++;
+        writeRoot = writable(root);
+        pathDepth = 0;
+    }
+
+    private void endWrite() {
+        root = writeRoot;
+        writeRoot = null;
+    }
+
+    private Leaf descendForWrite(int key) {
+        pathDepth = 0;
+        Node node = writeRoot;
+        while (!node.isLeaf()) {
+            Internal internal = (Internal) node;
+            int index = childIndex(internal, key);
+            if (pathDepth == pathNodes.length) {
+                pathNodes = Arrays.copyOf(pathNodes, 2 * pathDepth);
+                pathIndexes = Arrays.copyOf(pathIndexes, 2 * pathDepth);
+            }
+            pathNodes[pathDepth] = internal;
+            pathIndexes[pathDepth] = index;
+            pathDepth++;
+            node = writableChild(internal, index);
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * No modo copy-on-write, uma cópia do nó que a escrita atual pode alterar; caso
+     * contrário, o próprio nó.
+     */
+    private Node writable(Node node) {
+        if (!copyOnWrite || node.version == writeVersion) {
+            return node;
+        }
+        if (node.isLeaf()) {
+            Leaf leaf = (Leaf) node;
+            Leaf copy = new Leaf(maxKeys, writeVersion);
+            System.arraycopy(leaf.keys, 0, copy.keys, 0, leaf.count);
+            System.arraycopy(leaf.values, 0, copy.values, 0, leaf.count);
+            copy.count = leaf.count;
+            return copy;
+        }
+        Internal internal = (Internal) node;
+        Internal copy = new Internal(maxKeys, internal.level, writeVersion);
+        System.arraycopy(internal.keys, 0, copy.keys, 0, internal.count);
+        System.arraycopy(internal.children, 0, copy.children, 0, internal.count + 1);
+        System.arraycopy(internal.sizes, 0, copy.sizes, 0, internal.count + 1);
+        copy.count = internal.count;
+        return copy;
+    }
+
+    private Node writableChild(Internal parent, int index) {
+        Node child = parent.children[index];
+        Node copy = writable(child);
+        if (copy != child) {
+            parent.children[index] = copy;
+        }
+        return copy;
+    }
+
+    // ---------------------------------------------------------------- usado pelas políticas
+
+    /**
+     * Quantidade de nós internos no caminho da escrita atual; o nó alterado está nessa
+     * profundidade.
+     */
+    int pathDepth() {
+        return pathDepth;
+    }
+
+    Internal pathNode(int depth) {
+        return pathNodes[depth];
+    }
+
+    int pathIndex(int depth) {
+        return pathIndexes[depth];
+    }
+
+    /**
+     * Nó do caminho da escrita atual na profundidade depth (0 é a raiz).
+     */
+    Node nodeAt(int depth) {
+        return depth == 0 ? writeRoot : pathNodes[depth - 1].children[pathIndexes[depth - 1]];
+    }
+
+    /**
+     * Põe uma raiz interna sem separadores acima da raiz atual e a retorna.
+     */
+    Internal growRoot() {
+        Internal newRoot = new Internal(maxKeys, writeRoot.level + 1, writeVersion);
+        newRoot.children[0] = writeRoot;
+        newRoot.sizes[0] = subtreeSize(writeRoot);
+        writeRoot = newRoot;
+        return newRoot;
+    }
+
+    /**
+     * O conteúdo dos filhos [first, first + count) de parent cabe em newCount nós.
+     */
+    boolean fits(Internal parent, int first, int count, int newCount) {
+        int keys = 0;
+        for (int i = first; i < first + count; i++) {
+            keys += parent.children[i].count;
+        }
+        // Nos nós internos os separadores do pai descem e newCount - 1 deles voltam a subir
+        if (!parent.children[first].isLeaf()) {
+            keys += count - newCount;
+        }
+        return keys <= newCount * maxKeys;
+    }
+
+    /**
+     * Reparte por igual o conteúdo dos filhos [first, first + count) de parent entre
+     * newCount nós irmãos, reaproveitando os existentes, e reescreve os separadores e
+     * tamanhos do pai. Nas folhas o separador é a primeira chave do nó da direita; nos nós
+     * internos os separadores antigos descem para o meio da sequência e newCount - 1 deles
+     * sobem. Num merge os nós que sobram saem do pai e do encadeamento.
+     */
+    void respread(Internal parent, int first, int count, int newCount) {
+        Node[] nodes = scratchNodes;
+        for (int i = 0; i < count; i++) {
+            nodes[i] = writableChild(parent, first + i);
+        }
+        boolean leaves = nodes[0].isLeaf();
+        Leaf after = leaves ? ((Leaf) nodes[count - 1]).next : null;
+        for (int i = count; i < newCount; i++) {
+            nodes[i] = leaves ? new Leaf(maxKeys, writeVersion) : new Internal(maxKeys, nodes[0].level, writeVersion);
+        }
+
+        int keys = 0;
+        int items = 0;
+        for (int i = 0; i < count; i++) {
+            Node node = nodes[i];
+            if (i > 0 && !leaves) {
+                scratchKeys[keys++] = parent.keys[first + i - 1];
+            }
+            System.arraycopy(node.keys, 0, scratchKeys, keys, node.count);
+            keys += node.count;
+            if (leaves) {
+                System.arraycopy(((Leaf) node).values, 0, scratchItems, items, node.count);
+                items += node.count;
+            } else {
+                Internal internal = (Internal) node;
+                System.arraycopy(internal.children, 0, scratchItems, items, node.count + 1);
+                System.arraycopy(internal.sizes, 0, scratchSizes, items, node.count + 1);
+                items += node.count + 1;
+            }
+        }
+
+        // Nos nós internos, newCount - 1 chaves sobem para o pai e não ficam em nenhum nó
+        int stored = leaves ? keys : keys - (newCount - 1);
+        int delta = newCount - count;
+        int[] parentKeys = parent.keys;
+        System.arraycopy(parentKeys, first + count - 1, parentKeys, first + newCount - 1, parent.count - first - count + 1);
+        System.arraycopy(parent.children, first + count, parent.children, first + newCount, parent.count - first - count + 1);
+        System.arraycopy(parent.sizes, first + count, parent.sizes, first + newCount, parent.count - first - count + 1);
+        parent.count += delta;
+        for (int i = parent.count + 1; i < parent.count + 1 - delta; i++) {
+            parent.children[i] = null;
+        }
+
+        int position = 0;
+        int child = 0;
+        for (int i = 0; i < newCount; i++) {
+            int size = (int) ((long) stored * (i + 1) / newCount) - (int) ((long) stored * i / newCount);
+            Node node = nodes[i];
+            if (i > 0) {
+                parentKeys[first + i - 1] = scratchKeys[position];
+                if (!leaves) {
+                    position++;
+                }
+            }
+            int oldCount = node.count;
+            System.arraycopy(scratchKeys, position, node.keys, 0, size);
+            node.count = size;
+            if (leaves) {
+                Produto[] values = ((Leaf) node).values;
+                System.arraycopy(scratchItems, position, values, 0, size);
+                if (oldCount > size) {
+                    Arrays.fill(values, size, oldCount, null);
+                }
+                parent.sizes[first + i] = size;
+            } else {
+                Internal internal = (Internal) node;
+                System.arraycopy(scratchItems, child, internal.children, 0, size + 1);
+                System.arraycopy(scratchSizes, child, internal.sizes, 0, size + 1);
+                if (oldCount > size) {
+                    Arrays.fill(internal.children, size + 1, oldCount + 1, null);
+                }
+                child += size + 1;
+                parent.sizes[first + i] = subtreeSize(internal);
+            }
+            parent.children[first + i] = node;
+            position += size;
+        }
+        Arrays.fill(scratchItems, 0, items, null);
+
+        if (leaves && !copyOnWrite) {
+            // A folha anterior já aponta para nodes[0], que é sempre reaproveitada
+            for (int i = 0; i < newCount; i++) {
+                ((Leaf) nodes[i]).next = i + 1 < newCount ? (Leaf) nodes[i + 1] : after;
+            }
+            for (int i = newCount; i < count; i++) {
+                ((Leaf) nodes[i]).next = null;
+            }
+        }
+        Arrays.fill(nodes, null);
+    }
+
+    // ---------------------------------------------------------------- construção e formato
+
+    /**
+     * Substitui o conteúdo pelos count primeiros produtos de sorted, em ordem crescente de id
+     * (repetidos permitidos), montando a árvore de baixo para cima. As folhas recebem até
+     * maxKeys produtos, distribuídos por igual, e cada nível interno agrupa até maxKeys + 1
+     * filhos separados pela menor chave de cada um.
+     */
+    void buildFromSorted(Produto[] sorted, int count) {
+        for (int i = 1; i < count; i++) {
+            if (sorted[i].getId() < sorted[i - 1].getId()) {
+                throw new IllegalArgumentException("Produtos fora de ordem no id " + sorted[i].getId());
+            }
+        }
+        long version = ++writeVersion;
+        if (count == 0) {
+            root = new Leaf(maxKeys, version);
+            return;
+        }
+
+        int leafCount = (count + maxKeys - 1) / maxKeys;
+        Node[] level = new Node[leafCount];
+        int[] minKeys = new int[leafCount];
+        Leaf previous = null;
+        int from = 0;
+        for (int i = 0; i < leafCount; i++) {
+            int to = (int) ((long) count * (i + 1) / leafCount);
+            Leaf leaf = new Leaf(maxKeys, version);
+            for (int j = from; j < to; j++) {
+                leaf.keys[j - from] = sorted[j].getId();
+                leaf.values[j - from] = sorted[j];
+            }
+            leaf.count = to - from;
+            if (previous != null && !copyOnWrite) {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level[i] = leaf;
+            minKeys[i] = sorted[from].getId();
+            from = to;
+        }
+
+        // Cada nível é gravado no início do vetor do nível de baixo: o pai i só lê filhos >= i
+        int size = leafCount;
+        int height = 0;
+        while (size > 1) {
+            height++;
+            int parents = (size + maxKeys) / (maxKeys + 1);
+            int start = 0;
+            for (int i = 0; i < parents; i++) {
+                int end = (int) ((long) size * (i + 1) / parents);
+                Internal parent = new Internal(maxKeys, height, version);
+                for (int j = start; j < end; j++) {
+                    if (j > start) {
+                        parent.keys[j - start - 1] = minKeys[j];
+                    }
+                    parent.children[j - start] = level[j];
+                    parent.sizes[j - start] = subtreeSize(level[j]);
+                }
+                parent.count = end - start - 1;
+                level[i] = parent;
+                minKeys[i] = minKeys[start];
+                start = end;
+            }
+            size = parents;
+        }
+        root = level[0];
+    }
+
+    private TreeStats.Shape computeShape() {
+        TreeStats.Shape shape = new TreeStats.Shape(maxKeys);
+        addToShape(shape, root, 0);
+        return shape;
+    }
+
+    private static void addToShape(TreeStats.Shape shape, Node node, int level) {
+        shape.addNode(level, node.count, node.isLeaf());
+        if (!node.isLeaf()) {
+            Internal internal = (Internal) node;
+            for (int i = 0; i <= node.count; i++) {
+                addToShape(shape, internal.children[i], level + 1);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- iteração
+
+    /**
+     * Percorre os produtos de root em ordem de id, descendo por uma pilha de nós internos;
+     * não depende do encadeamento das folhas.
+     */
+    static Iterator<Produto> iterator(Node root) {
+        return new Iterator<Produto>() {
+            private final Internal[] parents = new Internal[root.level];
+            private final int[] nextChild = new int[root.level];
+            private int depth;
+            private Leaf leaf = descend(root);
+            private int index;
+
+            private Leaf descend(Node node) {
+                while (!node.isLeaf()) {
+                    parents[depth] = (Internal) node;
+                    nextChild[depth] = 1;
+                    depth++;
+                    node = ((Internal) node).children[0];
+                }
+                return (Leaf) node;
+            }
+
+            private void advance() {
+                while (leaf != null && index >= leaf.count) {
+                    leaf = null;
+                    index = 0;
+                    while (depth > 0 && nextChild[depth - 1] > parents[depth - 1].count) {
+                        depth--;
+                    }
+                    if (depth > 0) {
+                        Internal parent = parents[depth - 1];
+                        int child = nextChild[depth - 1]++;
+                        leaf = descend(parent.children[child]);
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                advance();
+                return leaf != null;
+            }
+
+            @Override
+            public Produto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return leaf.values[index++];
+            }
+        };
+    }
+
+    /**
+     * Percorre os produtos em ordem pelo encadeamento das folhas. Só fora do modo
+     * copy-on-write; a árvore não pode ser alterada durante a iteração.
+     */
+    Iterator<Produto> chainIterator() {
+        Leaf first = leftmostLeaf(root);
+        return new Iterator<Produto>() {
+            private Leaf leaf = first;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                while (leaf != null && index >= leaf.count) {
+                    leaf = leaf.next;
+                    index = 0;
+                }
+                return leaf != null;
+            }
+
+            @Override
+            public Produto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return leaf.values[index++];
+            }
+        };
+    }
+
+    /**
+     * Spliterator que se divide pela estrutura da árvore: cada parte cobre uma faixa de
+     * filhos de um nó interno e, ao ser consumida, anda pelo encadeamento da folha mais à
+     * esquerda da faixa até a mais à direita. Só fora do modo copy-on-write; a árvore não
+     * pode ser alterada durante o uso.
+     */
+    Spliterator<Produto> spliterator(long size) {
+        Node currentRoot = root;
+        return new TreeSpliterator(currentRoot, 0, currentRoot.isLeaf() ? 1 : currentRoot.count + 1, size);
+    }
+
+    private static final class TreeSpliterator implements Spliterator<Produto> {
+        private Node node;
+        private int from;
+        private int to;
+        private long estimate;
+        // Definidos no primeiro avanço; depois disso a parte não se divide mais
+        private Leaf leaf;
+        private Leaf lastLeaf;
+        private int index;
+
+        TreeSpliterator(Node node, int from, int to, long estimate) {
+            this.node = node;
+            this.from = from;
+            this.to = to;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public Spliterator<Produto> trySplit() {
+            if (leaf != null || node.isLeaf() || from >= to) {
+                return null;
+            }
+            if (to - from == 1) {
+                // Um filho só: a divisão continua dentro dele
+                Node child = ((Internal) node).children[from];
+                if (child.isLeaf()) {
+                    return null;
+                }
+                node = child;
+                from = 0;
+                to = child.count + 1;
+            }
+            int mid = (from + to) >>> 1;
+            long prefixEstimate = estimate * (mid - from) / (to - from);
+            TreeSpliterator prefix = new TreeSpliterator(node, from, mid, prefixEstimate);
+            from = mid;
+            estimate -= prefixEstimate;
+            return prefix;
+        }
+
+        private boolean start() {
+            if (leaf == null && from < to) {
+                if (node.isLeaf()) {
+                    leaf = (Leaf) node;
+                    lastLeaf = leaf;
+                } else {
+                    Node[] children = ((Internal) node).children;
+                    leaf = leftmostLeaf(children[from]);
+                    lastLeaf = rightmostLeaf(children[to - 1]);
+                }
+                from = to;
+            }
+            return leaf != null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Produto> action) {
+            if (!start()) {
+                return false;
+            }
+            while (index >= leaf.count) {
+                if (leaf == lastLeaf) {
+                    leaf = null;
+                    return false;
+                }
+                leaf = leaf.next;
+                index = 0;
+            }
+            action.accept(leaf.values[index++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Produto> action) {
+            if (!start()) {
+                return;
+            }
+            while (true) {
+                for (; index < leaf.count; index++) {
+                    action.accept(leaf.values[index]);
+                }
+                if (leaf == lastLeaf) {
+                    leaf = null;
+                    return;
+                }
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Produto> getComparator() {
+            // Ordem natural de Produto (por id)
+            return null;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Estatísticas de uma árvore: contadores de divisões, fusões e redistribuições e histogramas
+ * de nós visitados e de latência por busca/inserção. Os contadores são LongAdder, então o
+ * custo por operação é um incremento sem disputa e duas leituras de System.nanoTime.
+ *
+ * O formato (altura, nós, folhas e ocupação por nível) é calculado percorrendo a árvore só
+ * quando consultado, e o resultado é reaproveitado por SHAPE_TTL_NANOS.
+ */
+public class TreeStats implements TreeStatsMBean {
+    private static final long SHAPE_TTL_NANOS = 1_000_000_000L;
+
+    private final Supplier<Shape> shapeSupplier;
+    private final LongAdder splits = new LongAdder();
+    private final LongAdder merges = new LongAdder();
+    private final LongAdder redistributions = new LongAdder();
+    private final Histogram searchNodes = new Histogram(false);
+    private final Histogram insertNodes = new Histogram(false);
+    private final Histogram searchLatency = new Histogram(true);
+    private final Histogram insertLatency = new Histogram(true);
+
+    private volatile Shape cachedShape;
+    private volatile long cachedAt;
+
+    TreeStats(Supplier<Shape> shapeSupplier) {
+        this.shapeSupplier = shapeSupplier;
+    }
+
+    void recordSearch(int nodesVisited, long nanos) {
+        searchNodes.record(nodesVisited);
+        searchLatency.record(nanos);
+    }
+
+    void recordInsert(int nodesVisited, long nanos) {
+        insertNodes.record(nodesVisited);
+        insertLatency.record(nanos);
+    }
+
+    void recordSplit() {
+        splits.increment();
+    }
+
+    void recordMerge() {
+        merges.increment();
+    }
+
+    void recordRedistribution() {
+        redistributions.increment();
+    }
+
+    /**
+     * Formato atual da árvore, recalculado se o último tiver mais de SHAPE_TTL_NANOS.
+     */
+    public Shape shape() {
+        Shape shape = cachedShape;
+        long now = System.nanoTime();
+        if (shape == null || now - cachedAt > SHAPE_TTL_NANOS) {
+            try {
+                shape = shapeSupplier.get();
+            } catch (RuntimeException e) {
+                // Sem copy-on-write a árvore não é thread-safe: uma leitura via JMX que cruze
+                // uma escrita mantém o formato anterior
+                if (shape == null) {
+                    throw e;
+                }
+                return shape;
+            }
+            cachedShape = shape;
+            cachedAt = now;
+        }
+        return shape;
+    }
+
+    /**
+     * Recalcula o formato agora, ignorando o cache (útil entre fases de um benchmark).
+     */
+    public Shape refreshShape() {
+        Shape shape = shapeSupplier.get();
+        cachedShape = shape;
+        cachedAt = System.nanoTime();
+        return shape;
+    }
+
+    public Histogram getSearchNodesHistogram() {
+        return searchNodes;
+    }
+
+    public Histogram getInsertNodesHistogram() {
+        return insertNodes;
+    }
+
+    public Histogram getSearchLatencyHistogram() {
+        return searchLatency;
+    }
+
+    public Histogram getInsertLatencyHistogram() {
+        return insertLatency;
+    }
+
+    public void registerMBean(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("ED2:type=TreeStats,name=" + name));
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao registrar o MBean de estatísticas", e);
+        }
+    }
+
+    @Override
+    public int getHeight() {
+        return shape().getHeight();
+    }
+
+    @Override
+    public long getNodeCount() {
+        return shape().getNodeCount();
+    }
+
+    @Override
+    public long getLeafCount() {
+        return shape().getLeafCount();
+    }
+
+    @Override
+    public double getAverageFill() {
+        return shape().getAverageFill();
+    }
+
+    @Override
+    public double getMinFill() {
+        return shape().getMinFill();
+    }
+
+    @Override
+    public double[] getAverageFillByLevel() {
+        return shape().getAverageFillByLevel();
+    }
+
+    @Override
+    public double[] getMinFillByLevel() {
+        return shape().getMinFillByLevel();
+    }
+
+    @Override
+    public long getSplits() {
+        return splits.sum();
+    }
+
+    @Override
+    public long getMerges() {
+        return merges.sum();
+    }
+
+    @Override
+    public long getRedistributions() {
+        return redistributions.sum();
+    }
+
+    @Override
+    public long getSearches() {
+        return searchNodes.getCount();
+    }
+
+    @Override
+    public long getInserts() {
+        return insertNodes.getCount();
+    }
+
+    @Override
+    public double getAverageSearchNodes() {
+        return searchNodes.getMean();
+    }
+
+    @Override
+    public double getAverageInsertNodes() {
+        return insertNodes.getMean();
+    }
+
+    @Override
+    public long getSearchLatencyP50Nanos() {
+        return searchLatency.percentile(0.50);
+    }
+
+    @Override
+    public long getSearchLatencyP99Nanos() {
+        return searchLatency.percentile(0.99);
+    }
+
+    @Override
+    public long getInsertLatencyP50Nanos() {
+        return insertLatency.percentile(0.50);
+    }
+
+    @Override
+    public long getInsertLatencyP99Nanos() {
+        return insertLatency.percentile(0.99);
+    }
+
+    @Override
+    public String toString() {
+        Shape shape = shape();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Altura: %d, nós: %d, folhas: %d, ocupação média: %.1f%%, mínima: %.1f%%%n",
+                shape.getHeight(), shape.getNodeCount(), shape.getLeafCount(),
+                shape.getAverageFill() * 100, shape.getMinFill() * 100));
+        double[] average = shape.getAverageFillByLevel();
+        double[] min = shape.getMinFillByLevel();
+        for (int level = 0; level < average.length; level++) {
+            sb.append(String.format("  nível %d: %d nós, ocupação média %.1f%%, mínima %.1f%%%n",
+                    level, shape.getNodeCount(level), average[level] * 100, min[level] * 100));
+        }
+        sb.append(String.format("Divisões: %d, fusões: %d, redistribuições: %d%n",
+                getSplits(), getMerges(), getRedistributions()));
+        sb.append(String.format("Buscas: %d, nós/busca %.2f, latência p50 %d ns, p99 %d ns%n",
+                getSearches(), getAverageSearchNodes(), getSearchLatencyP50Nanos(), getSearchLatencyP99Nanos()));
+        sb.append(String.format("Inserções: %d, nós/inserção %.2f, latência p50 %d ns, p99 %d ns",
+                getInserts(), getAverageInsertNodes(), getInsertLatencyP50Nanos(), getInsertLatencyP99Nanos()));
+        return sb.toString();
+    }
+
+    /**
+     * Histograma de 64 faixas. No modo linear a faixa i conta o valor i (o último acumula os
+     * maiores); no logarítmico conta os valores em [2^(i-1), 2^i).
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final boolean logarithmic;
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        private final LongAdder sum = new LongAdder();
+
+        Histogram(boolean logarithmic) {
+            this.logarithmic = logarithmic;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long value) {
+            buckets[bucket(value)].increment();
+            sum.add(value);
+        }
+
+        private int bucket(long value) {
+            if (value <= 0) {
+                return 0;
+            }
+            return logarithmic ? 64 - Long.numberOfLeadingZeros(value) : (int) Math.min(value, BUCKETS - 1);
+        }
+
+        /**
+         * Maior valor que cabe na faixa.
+         */
+        public long upperBound(int bucket) {
+            if (bucket == BUCKETS - 1) {
+                return Long.MAX_VALUE;
+            }
+            return logarithmic && bucket > 0 ? (1L << bucket) - 1 : bucket;
+        }
+
+        public long[] getCounts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public double getMean() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) sum.sum() / count;
+        }
+
+        /**
+         * Limite superior da faixa que contém o percentil p (0 a 1).
+         */
+        public long percentile(double p) {
+            long[] counts = getCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target && counts[i] > 0) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(BUCKETS - 1);
+        }
+    }
+
+    /**
+     * Quantidade de nós e de chaves por nível, a partir da raiz (nível 0).
+     */
+    public static final class Shape {
+        // Por nível: nós, chaves, menor quantidade de chaves em um nó
+        private static final int NODES = 0;
+        private static final int KEYS = 1;
+        private static final int MIN_KEYS = 2;
+
+        private final int maxKeys;
+        private final List<long[]> levels = new ArrayList<>();
+        private long leaves;
+
+        Shape(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        void addNode(int level, int keyCount, boolean leaf) {
+            while (levels.size() <= level) {
+                levels.add(new long[] {0, 0, Long.MAX_VALUE});
+            }
+            long[] stats = levels.get(level);
+            stats[NODES]++;
+            stats[KEYS] += keyCount;
+            stats[MIN_KEYS] = Math.min(stats[MIN_KEYS], keyCount);
+            if (leaf) {
+                leaves++;
+            }
+        }
+
+        public int getHeight() {
+            return levels.size();
+        }
+
+        public long getNodeCount() {
+            long nodes = 0;
+            for (long[] stats : levels) {
+                nodes += stats[NODES];
+            }
+            return nodes;
+        }
+
+        public long getNodeCount(int level) {
+            return levels.get(level)[NODES];
+        }
+
+        public long getLeafCount() {
+            return leaves;
+        }
+
+        public double getAverageFill() {
+            long keys = 0;
+            for (long[] stats : levels) {
+                keys += stats[KEYS];
+            }
+            long nodes = getNodeCount();
+            return nodes == 0 ? 0 : (double) keys / ((double) nodes * maxKeys);
+        }
+
+        public double getMinFill() {
+            long min = Long.MAX_VALUE;
+            for (long[] stats : levels) {
+                min = Math.min(min, stats[MIN_KEYS]);
+            }
+            return levels.isEmpty() ? 0 : (double) min / maxKeys;
+        }
+
+        public double[] getAverageFillByLevel() {
+            double[] fill = new double[levels.size()];
+            for (int i = 0; i < fill.length; i++) {
+                long[] stats = levels.get(i);
+                fill[i] = (double) stats[KEYS] / ((double) stats[NODES] * maxKeys);
+            }
+            return fill;
+        }
+
+        public double[] getMinFillByLevel() {
+            double[] fill = new double[levels.size()];
+            for (int i = 0; i < fill.length; i++) {
+                fill[i] = (double) levels.get(i)[MIN_KEYS] / maxKeys;
+            }
+            return fill;
+        }
+    }
+}
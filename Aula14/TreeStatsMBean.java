@@ -0,0 +1,23 @@
+/**
+ * Estatísticas de uma BPlusTree ou BStarTree exportadas via JMX.
+ */
+public interface TreeStatsMBean {
+    int getHeight();
+    long getNodeCount();
+    long getLeafCount();
+    double getAverageFill();
+    double getMinFill();
+    double[] getAverageFillByLevel();
+    double[] getMinFillByLevel();
+    long getSplits();
+    long getMerges();
+    long getRedistributions();
+    long getSearches();
+    long getInserts();
+    double getAverageSearchNodes();
+    double getAverageInsertNodes();
+    long getSearchLatencyP50Nanos();
+    long getSearchLatencyP99Nanos();
+    long getInsertLatencyP50Nanos();
+    long getInsertLatencyP99Nanos();
+}
@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Mede ops/s e latência (p50/p99) do DurableBPlusTree com cada política de commit, usando
+ * vários escritores concorrentes em um diretório temporário.
+ *
+ * Uso: java WalBenchmark [threads] [operações por thread] [atraso máximo do grupo em µs]
+ */
+public class WalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        long groupDelayMicros = args.length > 2 ? Long.parseLong(args[2]) : 500;
+
+        System.out.println("Threads: " + threads + ", operações por thread: " + opsPerThread
+                + ", atraso máximo do grupo: " + groupDelayMicros + " µs");
+        System.out.println(String.format("%-8s | %-12s | %-10s | %-10s | %-8s",
+                "Política", "ops/s", "p50 (µs)", "p99 (µs)", "fsyncs"));
+        for (WriteAheadLog.CommitPolicy policy : WriteAheadLog.CommitPolicy.values()) {
+            run(policy, threads, opsPerThread, groupDelayMicros);
+        }
+    }
+
+    private static void run(WriteAheadLog.CommitPolicy policy, int threads, int opsPerThread,
+                            long groupDelayMicros) throws Exception {
+        Path dir = Files.createTempDirectory("wal-bench");
+        try {
+            long[][] latencies = new long[threads][opsPerThread];
+            long syncs;
+            long elapsed;
+            try (DurableBPlusTree tree = DurableBPlusTree.open(dir.resolve("produtos.idx"), policy,
+                    groupDelayMicros, TimeUnit.MICROSECONDS)) {
+                long syncsBefore = tree.getSyncCount();
+                Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    final int worker = t;
+                    workers[t] = new Thread(() -> {
+                        Random random = new Random(worker);
+                        int base = worker * opsPerThread;
+                        for (int i = 0; i < opsPerThread; i++) {
+                            long start = System.nanoTime();
+                            // 80% inserções, 20% remoções de ids já inseridos pela própria thread
+                            if (i > 0 && random.nextInt(5) == 0) {
+                                tree.delete(base + random.nextInt(i));
+                            } else {
+                                tree.insert(new Produto(base + i, "Produto " + (base + i), "Categoria " + worker));
+                            }
+                            latencies[worker][i] = System.nanoTime() - start;
+                        }
+                    });
+                }
+                long start = System.nanoTime();
+                for (Thread worker : workers) {
+                    worker.start();
+                }
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+                elapsed = System.nanoTime() - start;
+                syncs = tree.getSyncCount() - syncsBefore;
+            }
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            double opsPerSecond = all.length / (elapsed / 1e9);
+            System.out.println(String.format("%-8s | %-12.0f | %-10.1f | %-10.1f | %-8d",
+                    policy, opsPerSecond, percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3, syncs));
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Log de redo para a PagedBPlusTree. Cada registro é gravado como
+ * [tamanho (4)][crc32 (4)][lsn (8)][tipo (1)][dados], e a leitura para no primeiro registro
+ * incompleto ou corrompido (cauda interrompida por uma queda).
+ *
+ * Os registros são acumulados em memória e só vão para o disco em sync(). A política de commit
+ * decide quem chama sync: o próprio escritor (PER_OP), uma thread que agrupa os escritores
+ * que chegam dentro de um intervalo máximo (GROUP) ou a mesma thread periodicamente, sem que o
+ * escritor espere (ASYNC).
+ */
+public class WriteAheadLog implements AutoCloseable {
+    public enum CommitPolicy {
+        PER_OP, GROUP, ASYNC
+    }
+
+    static final byte INSERT = 1;
+    static final byte DELETE = 2;
+    static final byte PAGE = 3;
+    static final byte CHECKPOINT = 4;
+
+    private static final int RECORD_HEADER = 4 + 4;
+    private static final int BODY_HEADER = 8 + 1;
+
+    /**
+     * Registro lido do log durante a recuperação.
+     */
+    static class Record {
+        final long lsn;
+        final byte type;
+        final Produto product;
+        final int id;
+        final ByteBuffer image;
+        final long end;
+
+        Record(long lsn, byte type, Produto product, int id, ByteBuffer image, long end) {
+            this.lsn = lsn;
+            this.type = type;
+            this.product = product;
+            this.id = id;
+            this.image = image;
+            this.end = end;
+        }
+    }
+
+    private final FileChannel channel;
+    private final CommitPolicy policy;
+    private final long maxDelayNanos;
+    private final Thread flusher;
+
+    private final Object lock = new Object();
+    private final Object syncLock = new Object();
+    private ByteBuffer active = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer flushing = ByteBuffer.allocate(64 * 1024);
+    private int recordStart;
+    private long appendedLsn;
+    private long durableLsn;
+    private int waiters;
+    private boolean closed;
+    private IOException failure;
+
+    private long syncs;
+
+    /**
+     * Abre o log em path para acrescentar registros. O conteúdo existente deve ser lido antes
+     * com readRecords; lsnStart é o primeiro LSN livre (maior LSN lido + 1).
+     */
+    public WriteAheadLog(Path path, CommitPolicy policy, long maxDelay, TimeUnit unit, long lsnStart)
+            throws IOException {
+        if (policy != CommitPolicy.PER_OP && maxDelay <= 0) {
+            throw new IllegalArgumentException("A política " + policy + " precisa de um atraso máximo positivo");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.policy = policy;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.appendedLsn = lsnStart - 1;
+        this.durableLsn = lsnStart - 1;
+        if (policy == CommitPolicy.PER_OP) {
+            this.flusher = null;
+        } else {
+            this.flusher = new Thread(this::flusherLoop, "wal-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+    }
+
+    public CommitPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getSyncCount() {
+        synchronized (syncLock) {
+            return syncs;
+        }
+    }
+
+    // --- Escrita ---
+
+    public long appendInsert(Produto product) {
+        byte[] nome = product.getNome().getBytes(StandardCharsets.UTF_8);
+        byte[] categoria = product.getCategoria().getBytes(StandardCharsets.UTF_8);
+        synchronized (lock) {
+            ByteBuffer body = beginRecord(INSERT, 4 + 2 + nome.length + 2 + categoria.length);
+            body.putInt(product.getId());
+            body.putShort((short) nome.length).put(nome);
+            body.putShort((short) categoria.length).put(categoria);
+            return endRecord();
+        }
+    }
+
+    public long appendDelete(int id) {
+        synchronized (lock) {
+            ByteBuffer body = beginRecord(DELETE, 4);
+            body.putInt(id);
+            return endRecord();
+        }
+    }
+
+    long appendPage(int pageId, ByteBuffer page) {
+        synchronized (lock) {
+            ByteBuffer body = beginRecord(PAGE, 4 + page.capacity());
+            body.putInt(pageId);
+            body.put(page.duplicate().clear());
+            return endRecord();
+        }
+    }
+
+    long appendCheckpoint() {
+        synchronized (lock) {
+            beginRecord(CHECKPOINT, 0);
+            return endRecord();
+        }
+    }
+
+    private ByteBuffer beginRecord(byte type, int payloadLength) {
+        int needed = RECORD_HEADER + BODY_HEADER + payloadLength;
+        if (active.remaining() < needed) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + needed));
+            active.flip();
+            bigger.put(active);
+            active = bigger;
+        }
+        recordStart = active.position();
+        active.position(recordStart + RECORD_HEADER);
+        active.putLong(++appendedLsn);
+        active.put(type);
+        return active;
+    }
+
+    private long endRecord() {
+        int bodyStart = recordStart + RECORD_HEADER;
+        int bodyLength = active.position() - bodyStart;
+        CRC32 crc = new CRC32();
+        crc.update(active.array(), bodyStart, bodyLength);
+        active.putInt(recordStart, bodyLength);
+        active.putInt(recordStart + 4, (int) crc.getValue());
+        return appendedLsn;
+    }
+
+    /**
+     * Aguarda o registro lsn ficar durável conforme a política de commit.
+     */
+    public void commit(long lsn) throws IOException {
+        switch (policy) {
+            case PER_OP:
+                if (durableLsn() < lsn) {
+                    sync();
+                }
+                break;
+            case GROUP:
+                synchronized (lock) {
+                    waiters++;
+                    lock.notifyAll();
+                    try {
+                        while (durableLsn < lsn && failure == null && !closed) {
+                            lock.wait();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrompido aguardando o commit em grupo", e);
+                    } finally {
+                        waiters--;
+                    }
+                    if (failure != null) {
+                        throw failure;
+                    }
+                }
+                break;
+            case ASYNC:
+                break;
+        }
+    }
+
+    private long durableLsn() {
+        synchronized (lock) {
+            return durableLsn;
+        }
+    }
+
+    /**
+     * Grava no arquivo tudo o que já foi acrescentado e força o disco.
+     */
+    public void sync() throws IOException {
+        synchronized (syncLock) {
+            long target;
+            synchronized (lock) {
+                if (durableLsn == appendedLsn) {
+                    return;
+                }
+                ByteBuffer swap = flushing;
+                flushing = active;
+                active = swap;
+                active.clear();
+                target = appendedLsn;
+            }
+            flushing.flip();
+            try {
+                while (flushing.hasRemaining()) {
+                    channel.write(flushing);
+                }
+                channel.force(false);
+                syncs++;
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                throw e;
+            }
+            flushing.clear();
+            synchronized (lock) {
+                durableLsn = target;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Descarta o conteúdo do log depois de um checkpoint. Os LSNs continuam crescendo.
+     */
+    void truncate() throws IOException {
+        synchronized (syncLock) {
+            sync();
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+    }
+
+    private void flusherLoop() {
+        while (true) {
+            if (policy == CommitPolicy.GROUP) {
+                synchronized (lock) {
+                    try {
+                        while (!closed && waiters == 0) {
+                            lock.wait();
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            // GROUP: espera outros escritores se juntarem ao grupo; ASYNC: intervalo entre syncs
+            LockSupport.parkNanos(maxDelayNanos);
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                sync();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // --- Leitura ---
+
+    /**
+     * Lê todos os registros válidos do log, parando na primeira cauda incompleta ou corrompida.
+     */
+    static List<Record> readRecords(Path path) throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+        ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32 crc = new CRC32();
+        while (log.remaining() >= RECORD_HEADER) {
+            int start = log.position();
+            int bodyLength = log.getInt();
+            int checksum = log.getInt();
+            if (bodyLength < BODY_HEADER || bodyLength > log.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(log.array(), start + RECORD_HEADER, bodyLength);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            long lsn = log.getLong();
+            byte type = log.get();
+            int end = start + RECORD_HEADER + bodyLength;
+            switch (type) {
+                case INSERT: {
+                    int id = log.getInt();
+                    String nome = readString(log);
+                    String categoria = readString(log);
+                    records.add(new Record(lsn, type, new Produto(id, nome, categoria), id, null, end));
+                    break;
+                }
+                case DELETE:
+                    records.add(new Record(lsn, type, null, log.getInt(), null, end));
+                    break;
+                case PAGE: {
+                    int pageId = log.getInt();
+                    ByteBuffer image = ByteBuffer.allocate(bodyLength - BODY_HEADER - 4);
+                    log.get(image.array());
+                    records.add(new Record(lsn, type, null, pageId, image, end));
+                    break;
+                }
+                case CHECKPOINT:
+                    records.add(new Record(lsn, type, null, 0, null, end));
+                    break;
+                default:
+                    throw new IOException("Tipo de registro desconhecido no log: " + type);
+            }
+            log.position(end);
+        }
+        return records;
+    }
+
+    /**
+     * Corta do arquivo a cauda que readRecords não conseguiu ler, para que novos registros
+     * não fiquem depois de um registro corrompido.
+     */
+    static void discardTail(Path path, List<Record> records) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        long validLength = records.isEmpty() ? 0 : records.get(records.size() - 1).end;
+        try (FileChannel log = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (log.size() > validLength) {
+                log.truncate(validLength);
+                log.force(true);
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer log) {
+        int length = log.getShort() & 0xFFFF;
+        String value = new String(log.array(), log.position(), length, StandardCharsets.UTF_8);
+        log.position(log.position() + length);
+        return value;
+    }
+}
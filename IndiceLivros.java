@@ -0,0 +1,296 @@
+// Árvore B de livros numa ordem (OrdemLivros): a ArvoreB usa uma por ISBN e outra por
+// título, com os mesmos objetos Livro. Cada nó guarda o total de livros da sua subárvore,
+// o que dá o tamanho em O(1) e permite pular direto para o início de uma página. Os
+// percursos em ordem descem só até a primeira chave pedida e param quando o visitante
+// recusa uma chave, então faixas e prefixos custam O(altura + resultados).
+class IndiceLivros {
+    // Recebe cada chave do percurso pela posição no nó, para poder testar o código e o texto
+    // guardados ali sem abrir o Livro; devolve falso para parar
+    interface Visitante {
+        boolean visitar(NoArvoreB no, int i);
+    }
+
+    NoArvoreB raiz; // NoArvoreB raiz 
+    final int t; // Grau mínimo 
+    final OrdemLivros ordem;
+
+    public IndiceLivros(int t, OrdemLivros ordem) {
+        this.t = t;
+        this.ordem = ordem;
+        raiz = new NoArvoreB(t, ordem); // raiz = novo NoArvoreB(t) 
+    }
+
+    // Quantidade de livros na árvore
+    public int tamanho() {
+        return raiz.total;
+    }
+
+    // Quantidade de níveis, da raiz até as folhas
+    public int altura() {
+        int altura = 1;
+        for (NoArvoreB no = raiz; !no.ehFolha; no = no.filhos[0]) {
+            altura++;
+        }
+        return altura;
+    }
+
+    // Método para inserir uma chave (Livro). Retorna falso, sem inserir, se já houver uma
+    // chave igual na ordem da árvore
+    public boolean inserir(Livro novoLivro) {
+        if (raiz.estaCheio()) { // se raiz.estaCheio() entao 
+            NoArvoreB novaRaiz = new NoArvoreB(t, ordem); // NoArvoreB novaRaiz = novo NoArvoreB(t) 
+            novaRaiz.ehFolha = false; // novaRaiz.ehFolha = falso 
+            novaRaiz.filhos[0] = raiz; // novaRaiz.filhos[0] = raiz 
+            novaRaiz.total = raiz.total;
+            novaRaiz.dividirFilho(0); // novaRaiz.dividirFilho(0) 
+            raiz = novaRaiz; // raiz = novaRaiz 
+        }
+        return inserirNaoCheio(raiz, ordem.codigo(novoLivro), novoLivro); // inserirNaoCheio(raiz, chave) 
+    }
+
+    // Método auxiliar para inserir em nó não cheio; retorna falso se a chave já existir. Os
+    // nós divididos no caminho até a repetida continuam válidos, e o total de cada nó do
+    // caminho só cresce na volta, depois que a inserção deu certo
+    private boolean inserirNaoCheio(NoArvoreB no, long codigo, Livro novoLivro) {
+        // Encontra, por busca binária, a primeira chave maior que a nova: uma chave igual só
+        // pode estar logo antes dela
+        int i = no.buscarPosicaoInsercao(codigo, novoLivro);
+        if (i > 0 && no.compararCom(i - 1, codigo, novoLivro) == 0) {
+            return false;
+        }
+        if (no.ehFolha) { // se no.ehFolha entao 
+            no.inserirChave(i, codigo, novoLivro); // no.inserirChave(chave) 
+            no.total = no.total + 1;
+            return true;
+        }
+
+        // Se o filho está cheio, divide-o 
+        if (no.filhos[i].estaCheio()) { // se no.filhos[i].estaCheio() entao 
+            no.dividirFilho(i); // no.dividirFilho(i) 
+
+            int comparacao = no.compararCom(i, codigo, novoLivro);
+            if (comparacao == 0) { // a chave promovida é a repetida
+                return false;
+            }
+            if (comparacao < 0) { // se chave > no.chaves[i] entao 
+                i = i + 1; // i = i + 1 
+            }
+        }
+        if (!inserirNaoCheio(no.filhos[i], codigo, novoLivro)) { // inserirNaoCheio (no.filhos[i], chave) 
+            return false;
+        }
+        no.total = no.total + 1;
+        return true;
+    }
+
+    // Método para buscar a chave igual à sonda; retorna o livro guardado ou null
+    public Livro buscar(Livro sonda) {
+        return buscarNo(raiz, ordem.codigo(sonda), sonda); // retorne buscarNo(raiz, chave) 
+    }
+
+    // Método auxiliar para buscar em um nó 
+    private Livro buscarNo(NoArvoreB no, long codigo, Livro sonda) {
+        // Encontra, por busca binária, a primeira chave maior ou igual à chave procurada 
+        int i = no.buscarPosicao(codigo, sonda);
+
+        // Se encontrou a chave 
+        if (i < no.numChaves && no.compararCom(i, codigo, sonda) == 0) { // se i < no.numChaves e chave == no.chaves[i] entao 
+            return no.chaves[i]; // retorne verdadeiro 
+        }
+
+        // Se é folha e não encontrou, a chave não existe 
+        if (no.ehFolha) { // se no.ehFolha entao 
+            return null; // retorne falso 
+        }
+
+        // Busca recursivamente no filho apropriado 
+        return buscarNo(no.filhos[i], codigo, sonda); // retorne buscarNo (no.filhos[i], chave) 
+    }
+
+    // Monta a árvore de baixo para cima a partir de n livros em ordem estritamente crescente.
+    // Cada nível é dividido no menor número de nós que comporta as chaves, com elas
+    // distribuídas por igual (sempre entre t - 1 e 2t - 1 por nó), e a chave entre um nó e o
+    // seguinte sobe como separadora para o nível de cima. O(n)
+    public void construirOrdenado(Livro[] ordenados, int n) {
+        Livro[] chavesNivel = ordenados;
+        int m = n;
+        NoArvoreB[] filhosNivel = null;
+        while (true) {
+            // Cada nó leva até 2t - 1 chaves mais a separadora que sobe depois dele
+            int nos = (m + 2 * t) / (2 * t);
+            int distribuidas = m - (nos - 1);
+            NoArvoreB[] nivel = new NoArvoreB[nos];
+            Livro[] separadores = new Livro[nos - 1];
+            int k = 0;
+            int f = 0;
+            for (int j = 0; j < nos; j++) {
+                int quantidade = distribuidas / nos + (j < distribuidas % nos ? 1 : 0);
+                NoArvoreB no = new NoArvoreB(t, ordem);
+                no.ehFolha = filhosNivel == null;
+                for (int i = 0; i < quantidade; i++) {
+                    no.chaves[i] = chavesNivel[k];
+                    no.codigos[i] = ordem.codigo(chavesNivel[k]);
+                    no.textos[i] = ordem.texto(chavesNivel[k]);
+                    k++;
+                }
+                no.numChaves = quantidade;
+                no.total = quantidade;
+                if (!no.ehFolha) {
+                    for (int i = 0; i <= quantidade; i++) {
+                        no.filhos[i] = filhosNivel[f++];
+                        no.total += no.filhos[i].total;
+                    }
+                }
+                nivel[j] = no;
+                if (j < nos - 1) {
+                    separadores[j] = chavesNivel[k++];
+                }
+            }
+            if (nos == 1) {
+                raiz = nivel[0];
+                return;
+            }
+            chavesNivel = separadores;
+            m = nos - 1;
+            filhosNivel = nivel;
+        }
+    }
+
+    // Método para remover a chave igual à sonda; retorna o livro removido ou null se ela não
+    // estiver na árvore. A remoção desce uma vez da raiz até o livro e, antes de entrar em
+    // cada filho, garante que ele tenha pelo menos t chaves, então nunca precisa voltar para
+    // rebalancear: O(t log n)
+    public Livro remover(Livro sonda) {
+        Livro removido = removerNo(raiz, ordem.codigo(sonda), sonda);
+
+        // Se a raiz ficou sem chaves depois de uma fusão, o único filho vira a raiz
+        if (raiz.numChaves == 0 && !raiz.ehFolha) {
+            raiz = raiz.filhos[0];
+        }
+        return removido;
+    }
+
+    // Método auxiliar para remover de um nó com pelo menos t chaves (ou da raiz); o total do
+    // nó só diminui se a chave foi encontrada
+    private Livro removerNo(NoArvoreB no, long codigo, Livro sonda) {
+        int i = no.buscarPosicao(codigo, sonda);
+        Livro removido;
+
+        if (i < no.numChaves && no.compararCom(i, codigo, sonda) == 0) {
+            removido = no.chaves[i];
+            if (no.ehFolha) {
+                // Caso 1: a chave está numa folha
+                no.removerChave(i);
+            } else if (no.filhos[i].numChaves >= t) {
+                // Caso 2a: o predecessor toma o lugar da chave e é removido do filho anterior
+                Livro predecessor = no.filhos[i].maiorChave();
+                no.chaves[i] = predecessor;
+                no.codigos[i] = ordem.codigo(predecessor);
+                no.textos[i] = ordem.texto(predecessor);
+                removerNo(no.filhos[i], no.codigos[i], predecessor);
+            } else if (no.filhos[i + 1].numChaves >= t) {
+                // Caso 2b: o mesmo com o sucessor e o filho seguinte
+                Livro sucessor = no.filhos[i + 1].menorChave();
+                no.chaves[i] = sucessor;
+                no.codigos[i] = ordem.codigo(sucessor);
+                no.textos[i] = ordem.texto(sucessor);
+                removerNo(no.filhos[i + 1], no.codigos[i], sucessor);
+            } else {
+                // Caso 2c: os dois filhos têm t - 1 chaves; a chave desce para a fusão deles
+                no.fundir(i);
+                removerNo(no.filhos[i], codigo, sonda);
+            }
+        } else if (no.ehFolha) {
+            return null;
+        } else {
+            // Caso 3: antes de descer, o filho recebe uma chave de um irmão ou é fundido com ele
+            if (no.filhos[i].numChaves < t) {
+                i = no.garantirFilho(i);
+            }
+            removido = removerNo(no.filhos[i], codigo, sonda);
+            if (removido == null) {
+                return null;
+            }
+        }
+        no.total = no.total - 1;
+        return removido;
+    }
+
+    // Percorre as chaves em ordem a partir da primeira >= sonda (do início, se a sonda for
+    // null), entregando cada uma ao visitante enquanto ele devolver verdadeiro
+    public void percorrer(Livro sonda, Visitante visitante) {
+        percorrerNo(raiz, sonda == null ? 0 : ordem.codigo(sonda), sonda, visitante);
+    }
+
+    // Retorna falso quando o visitante parou o percurso
+    private boolean percorrerNo(NoArvoreB no, long codigo, Livro sonda, Visitante visitante) {
+        // Só o primeiro filho visitado pode ter chaves menores que a sonda; os seguintes são
+        // percorridos inteiros
+        for (int i = sonda == null ? 0 : no.buscarPosicao(codigo, sonda); i <= no.numChaves; i++) {
+            if (!no.ehFolha && !percorrerNo(no.filhos[i], codigo, sonda, visitante)) {
+                return false;
+            }
+            sonda = null;
+            if (i == no.numChaves) {
+                return true;
+            }
+            if (!visitante.visitar(no, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Até quantidade livros a partir da posição inicio (0 é o primeiro), em ordem
+    public ListaLivros pagina(int inicio, int quantidade) {
+        ListaLivros resultado = new ListaLivros();
+        if (inicio >= 0 && quantidade > 0) {
+            coletarPagina(raiz, inicio, quantidade, resultado);
+        }
+        return resultado;
+    }
+
+    // Pula as primeiras pular posições da subárvore sem descer nelas; retorna quantas ainda
+    // faltam pular
+    private int coletarPagina(NoArvoreB no, int pular, int quantidade, ListaLivros resultado) {
+        if (pular >= no.total) {
+            return pular - no.total;
+        }
+        for (int i = 0; i <= no.numChaves && resultado.tamanho() < quantidade; i++) {
+            if (!no.ehFolha) {
+                pular = coletarPagina(no.filhos[i], pular, quantidade, resultado);
+            }
+            if (i < no.numChaves && resultado.tamanho() < quantidade) {
+                if (pular > 0) {
+                    pular = pular - 1;
+                } else {
+                    resultado.adicionar(no.chaves[i]);
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Método para exibir a estrutura da árvore 
+    public void exibirEstrutura() {
+        exibirEstruturaNo(raiz, 0); // exibirEstruturaNo(raiz, 0) 
+    }
+
+    // Método auxiliar para exibir estrutura 
+    private void exibirEstruturaNo(NoArvoreB no, int nivel) {
+        // Indentação baseada no nível 
+        for (int i = 0; i < nivel; i++) { // para i de 0 ate nivel faca 
+            System.out.print("  "); // escreva(" ") 
+        }
+
+        no.exibirNo(); // no.exibirNo() 
+        System.out.println(); // escreva("\n") 
+
+        // Se não é folha, exibe os filhos 
+        if (!no.ehFolha) { // se nao no.ehFolha entao 
+            for (int i = 0; i <= no.numChaves; i++) { // para i de 0 ate no.numChaves faca 
+                exibirEstruturaNo(no.filhos[i], nivel + 1); // exibirEstruturaNo (no.filhos [i], nivel + 1) 
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+// Custom List implementation to avoid java.util.ArrayList (if strictly adhering to "no native libraries")
+class ListaLivros {
+    private Livro[] elementos;
+    private int tamanhoAtual;
+    private static final int CAPACIDADE_INICIAL = 10;
+
+    public ListaLivros() {
+        elementos = new Livro[CAPACIDADE_INICIAL];
+        tamanhoAtual = 0;
+    }
+
+    public void adicionar(Livro livro) {
+        if (tamanhoAtual == elementos.length) {
+            // Aumentar capacidade (simples duplicação)
+            Livro[] novoArray = new Livro[elementos.length * 2];
+            for (int i = 0; i < elementos.length; i++) {
+                novoArray[i] = elementos[i];
+            }
+            elementos = novoArray;
+        }
+        elementos[tamanhoAtual++] = livro;
+    }
+
+    public Livro obter(int indice) {
+        if (indice < 0 || indice >= tamanhoAtual) {
+            // Poderia lançar uma exceção, mas para simplicidade, retorna nulo
+            return null;
+        }
+        return elementos[indice];
+    }
+
+    public void definir(int indice, Livro livro) {
+        if (indice >= 0 && indice < tamanhoAtual) {
+            elementos[indice] = livro;
+        }
+    }
+
+    public int tamanho() {
+        return tamanhoAtual;
+    }
+
+    // Cópia dos elementos num array do tamanho exato
+    public Livro[] paraArray() {
+        Livro[] copia = new Livro[tamanhoAtual];
+        for (int i = 0; i < tamanhoAtual; i++) {
+            copia[i] = elementos[i];
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,145 @@
+// Classe para representar um Livro
+class Livro {
+    String titulo;
+    String autor;
+    String isbn; // Usaremos ISBN como a chave para a Árvore B
+
+    // Chave usada pela Árvore B: o ISBN sem hífens e espaços codificado em um long
+    // (ver codificarIsbn), ou CHAVE_TEXTO se ele não for numérico. Só nesse caso a
+    // comparação cai para a string normalizada em textoChave.
+    static final long CHAVE_TEXTO = Long.MAX_VALUE;
+    private static final int MAX_DIGITOS_ISBN = 13;
+    final long chave;
+    final String textoChave;
+
+    public Livro(String titulo, String autor, String isbn) {
+        this.titulo = titulo;
+        this.autor = autor;
+        this.isbn = isbn;
+        this.chave = codificarIsbn(isbn);
+        this.textoChave = chave == CHAVE_TEXTO ? normalizarIsbn(isbn) : null;
+    }
+
+    // Livro de busca (sonda): só os campos que as ordens da Árvore B comparam (OrdemLivros).
+    // Uma sonda com chave Long.MIN_VALUE fica antes de todos os livros de mesmo título
+    Livro(String titulo, long chave, String textoChave) {
+        this.titulo = titulo;
+        this.chave = chave;
+        this.textoChave = textoChave;
+    }
+
+    // Sonda para o ISBN informado; hífens e espaços são ignorados
+    static Livro sondaIsbn(String isbn) {
+        long chave = codificarIsbn(isbn);
+        return new Livro(null, chave, chave == CHAVE_TEXTO ? normalizarIsbn(isbn) : null);
+    }
+
+    // Método para comparar dois livros pelo ISBN
+    // Retorna < 0 se este.isbn < outroLivro.isbn, > 0 se este.isbn > outroLivro.isbn, 0 se iguais
+    public int compararISBN(Livro outroLivro) {
+        return compararChaves(this.chave, this.textoChave, outroLivro.chave, outroLivro.textoChave);
+    }
+
+    // Compara duas chaves de ISBN; a string só é usada quando as duas são CHAVE_TEXTO
+    static int compararChaves(long chave1, String texto1, long chave2, String texto2) {
+        if (chave1 != chave2) {
+            return chave1 < chave2 ? -1 : 1;
+        }
+        return chave1 == CHAVE_TEXTO ? compareStrings(texto1, texto2) : 0;
+    }
+
+    // ISBN sem hífens e espaços
+    static String normalizarIsbn(String isbn) {
+        StringBuilder normalizado = new StringBuilder(isbn.length());
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && c != ' ') {
+                normalizado.append(c);
+            }
+        }
+        return normalizado.toString();
+    }
+
+    // Codifica o ISBN normalizado (de 1 a 13 dígitos, com 'X' valendo 10 como no dígito
+    // verificador do ISBN-10) em base 11, completando à direita com zeros até 13 posições,
+    // e guarda o tamanho nos 4 bits baixos. A ordem dos longs é a ordem alfabética das
+    // strings normalizadas. Qualquer outro caractere devolve CHAVE_TEXTO.
+    static long codificarIsbn(String isbn) {
+        long valor = 0;
+        int digitos = 0;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            int digito;
+            if (c >= '0' && c <= '9') {
+                digito = c - '0';
+            } else if (c == 'X' || c == 'x') {
+                digito = 10;
+            } else {
+                return CHAVE_TEXTO;
+            }
+            if (++digitos > MAX_DIGITOS_ISBN) {
+                return CHAVE_TEXTO;
+            }
+            valor = valor * 11 + digito;
+        }
+        if (digitos == 0) {
+            return CHAVE_TEXTO;
+        }
+        for (int i = digitos; i < MAX_DIGITOS_ISBN; i++) {
+            valor = valor * 11;
+        }
+        return valor * 16 + digitos;
+    }
+
+    // Método auxiliar para comparar strings (para ISBN e título) sem usar String.compareTo
+    static int compareStrings(String s1, String s2) {
+        int minLength = Math.min(s1.length(), s2.length());
+        for (int i = 0; i < minLength; i++) {
+            if (s1.charAt(i) < s2.charAt(i)) {
+                return -1;
+            } else if (s1.charAt(i) > s2.charAt(i)) {
+                return 1;
+            }
+        }
+        if (s1.length() < s2.length()) {
+            return -1;
+        } else if (s1.length() > s2.length()) {
+            return 1;
+        } else {
+            return 0;
+        }
+    }
+
+    // Indica se s começa com prefixo, comparando caractere a caractere como compareStrings
+    static boolean comecaCom(String s, String prefixo) {
+        if (s.length() < prefixo.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefixo.length(); i++) {
+            if (s.charAt(i) != prefixo.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Indica se a chave começa com os dígitos da chave prefixo, ambas numéricas: os primeiros
+    // dígitos em base 11 coincidem e a chave tem pelo menos tantos dígitos quanto o prefixo
+    static boolean chaveComecaCom(long chave, long prefixo) {
+        if (chave == CHAVE_TEXTO) {
+            return false;
+        }
+        int digitos = (int) (prefixo & 15);
+        if ((chave & 15) < digitos) {
+            return false;
+        }
+        long divisor = 1;
+        for (int i = digitos; i < MAX_DIGITOS_ISBN; i++) {
+            divisor = divisor * 11;
+        }
+        return (chave >>> 4) / divisor == (prefixo >>> 4) / divisor;
+    }
+}
@@ -0,0 +1,316 @@
+// Classe para representar um nó da Árvore B de grau mínimo t
+// (de t - 1 a 2t - 1 chaves e de t a 2t filhos; a raiz pode ter menos)
+class NoArvoreB {
+    Livro[] chaves; // Array para armazenar até 2t - 1 objetos Livro 
+    long[] codigos; // codigos[i] = ordem.codigo(chaves[i]), lado a lado para a busca binária
+    String[] textos; // textos[i] = ordem.texto(chaves[i]), para o desempate entre códigos iguais
+    NoArvoreB[] filhos; // Array para armazenar até 2t filhos 
+    int numChaves; // Número atual de chaves no nó 
+    boolean ehFolha; // Indica se o nó é uma folha 
+    int total; // Livros nesta subárvore (chaves do nó e de todos os descendentes) 
+    int t; // Grau mínimo 
+    final OrdemLivros ordem; // Ordem das chaves (por ISBN ou por título)
+
+    // Construtor
+    public NoArvoreB(int t, OrdemLivros ordem) {
+        this.t = t;
+        this.ordem = ordem;
+        chaves = new Livro[2 * t - 1]; // Array para armazenar até 2t - 1 chaves 
+        codigos = new long[2 * t - 1];
+        textos = new String[2 * t - 1];
+        filhos = new NoArvoreB[2 * t]; // Array para armazenar até 2t filhos 
+        numChaves = 0; // Número atual de chaves no nó 
+        ehFolha = true; // Indica se o nó é uma folha 
+    }
+
+    // Método para verificar se o nó está cheio 
+    public boolean estaCheio() {
+        return numChaves == 2 * t - 1; // Retorne numChaves == 2t - 1 
+    }
+
+    // Compara a chave da posição i com a sonda, cujo código é codigo; o texto só é olhado
+    // quando os códigos empatam
+    public int compararCom(int i, long codigo, Livro sonda) {
+        long atual = codigos[i];
+        if (atual != codigo) {
+            return atual < codigo ? -1 : 1;
+        }
+        return ordem.desempatar(textos[i], chaves[i], sonda);
+    }
+
+    // Busca binária: posição da primeira chave >= sonda (numChaves se não houver)
+    public int buscarPosicao(long codigo, Livro sonda) {
+        int inicio = 0;
+        int fim = numChaves;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (compararCom(meio, codigo, sonda) < 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    // Busca binária: posição da primeira chave > sonda, ou seja, o filho por onde desce a
+    // inserção e a posição onde a nova chave entra numa folha
+    public int buscarPosicaoInsercao(long codigo, Livro sonda) {
+        int inicio = 0;
+        int fim = numChaves;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (compararCom(meio, codigo, sonda) <= 0) {
+                inicio = meio + 1;
+            } else {
+                fim = meio;
+            }
+        }
+        return inicio;
+    }
+
+    // Método para inserir uma chave (Livro) na posição indicada de um nó folha
+    public void inserirChave(int posicao, long codigo, Livro novoLivro) {
+        // Move as chaves maiores para a direita 
+        for (int i = numChaves - 1; i >= posicao; i--) { // para i de numChaves - 1 ate posicao faca 
+            chaves[i + 1] = chaves[i]; // chaves[i + 1] = chaves[i] 
+            codigos[i + 1] = codigos[i];
+            textos[i + 1] = textos[i];
+        }
+
+        // Insere a nova chave 
+        chaves[posicao] = novoLivro; // chaves[posicao] = chave 
+        codigos[posicao] = codigo;
+        textos[posicao] = ordem.texto(novoLivro);
+        numChaves = numChaves + 1; // numChaves = numChaves + 1 
+    }
+
+    // Método para dividir um nó filho cheio: as t - 1 chaves menores ficam no filho, a
+    // mediana sobe para este nó e as t - 1 maiores vão para o novo nó. Os totais das duas
+    // metades são refeitos; o total deste nó não muda
+    public NoArvoreB dividirFilho(int indice) {
+        NoArvoreB novoNo = new NoArvoreB(t, ordem); // NoArvoreB novoNo = novo NoArvoreB(t) 
+        NoArvoreB filhoCheio = filhos[indice]; // NoArvoreB filhoCheio = filhos[indice] 
+
+        novoNo.ehFolha = filhoCheio.ehFolha; // novoNo.ehFolha = filhoCheio.ehFolha 
+        novoNo.numChaves = t - 1; // novoNo.numChaves = t - 1 
+        novoNo.total = t - 1;
+
+        // Move as últimas t - 1 chaves (Livros) para o novo nó 
+        for (int i = 0; i < t - 1; i++) { // para i de 0 ate t - 2 faca 
+            novoNo.chaves[i] = filhoCheio.chaves[i + t]; // novoNo.chaves[i] = filhoCheio.chaves[i + t] 
+            novoNo.codigos[i] = filhoCheio.codigos[i + t];
+            novoNo.textos[i] = filhoCheio.textos[i + t];
+            filhoCheio.chaves[i + t] = null;
+            filhoCheio.textos[i + t] = null;
+        }
+
+        // Se não é folha, move os últimos t filhos também 
+        if (!filhoCheio.ehFolha) { // se nao filhoCheio.ehFolha entao 
+            for (int i = 0; i < t; i++) { // para i de 0 ate t - 1 faca 
+                novoNo.filhos[i] = filhoCheio.filhos[i + t]; // novoNo.filhos[i] = filhoCheio.filhos[i + t] 
+                novoNo.total += novoNo.filhos[i].total;
+                filhoCheio.filhos[i + t] = null;
+            }
+        }
+
+        filhoCheio.numChaves = t - 1; // filhoCheio.numChaves = t - 1 
+        filhoCheio.total -= novoNo.total + 1;
+
+        // Move os filhos do nó atual para abrir espaço 
+        for (int i = numChaves; i >= indice + 1; i--) { // para i de numChaves ate indice + 1 faca 
+            filhos[i + 1] = filhos[i]; // filhos[i + 1] = filhos[i] 
+        }
+
+        filhos[indice + 1] = novoNo; // filhos[indice + 1] = novoNo 
+
+        // Move as chaves para abrir espaço para a chave promovida 
+        for (int i = numChaves - 1; i >= indice; i--) { // para i de numChaves - 1 ate indice faca 
+            chaves[i + 1] = chaves[i]; // chaves[i + 1] = chaves[i] 
+            codigos[i + 1] = codigos[i];
+            textos[i + 1] = textos[i];
+        }
+
+        // Promove a chave do meio 
+        chaves[indice] = filhoCheio.chaves[t - 1]; // chaves[indice] = filhoCheio.chaves[t - 1] 
+        codigos[indice] = filhoCheio.codigos[t - 1];
+        textos[indice] = filhoCheio.textos[t - 1];
+        filhoCheio.chaves[t - 1] = null;
+        filhoCheio.textos[t - 1] = null;
+        numChaves = numChaves + 1; // numChaves = numChaves + 1 
+
+        return novoNo; // retorne novoNo 
+    }
+
+    // Remoção: as operações abaixo refazem os totais dos filhos envolvidos. O total deste nó
+    // é ajustado por quem desce (IndiceLivros.removerNo)
+
+    // Remove a chave da posição indice de um nó folha, puxando as seguintes para a esquerda
+    public void removerChave(int indice) {
+        for (int i = indice + 1; i < numChaves; i++) {
+            chaves[i - 1] = chaves[i];
+            codigos[i - 1] = codigos[i];
+            textos[i - 1] = textos[i];
+        }
+        numChaves = numChaves - 1;
+        chaves[numChaves] = null;
+        textos[numChaves] = null;
+    }
+
+    // Maior chave da subárvore (o predecessor da chave logo acima dela)
+    public Livro maiorChave() {
+        NoArvoreB no = this;
+        while (!no.ehFolha) {
+            no = no.filhos[no.numChaves];
+        }
+        return no.chaves[no.numChaves - 1];
+    }
+
+    // Menor chave da subárvore (o sucessor da chave logo acima dela)
+    public Livro menorChave() {
+        NoArvoreB no = this;
+        while (!no.ehFolha) {
+            no = no.filhos[0];
+        }
+        return no.chaves[0];
+    }
+
+    // Garante que filhos[indice] tenha pelo menos t chaves antes de a remoção descer por ele:
+    // pega uma chave de um irmão que tenha t ou mais ou, se os dois só têm t - 1, funde com
+    // um deles. Retorna a posição do filho que passou a cobrir a faixa (indice - 1 quando ele
+    // foi fundido ao irmão anterior)
+    public int garantirFilho(int indice) {
+        if (indice > 0 && filhos[indice - 1].numChaves >= t) {
+            emprestarDoAnterior(indice);
+            return indice;
+        }
+        if (indice < numChaves && filhos[indice + 1].numChaves >= t) {
+            emprestarDoProximo(indice);
+            return indice;
+        }
+        if (indice < numChaves) {
+            fundir(indice);
+            return indice;
+        }
+        fundir(indice - 1);
+        return indice - 1;
+    }
+
+    // A chave separadora desce para o início de filhos[indice] e a última chave do irmão
+    // anterior sobe no lugar dela, levando o último filho do irmão junto
+    private void emprestarDoAnterior(int indice) {
+        NoArvoreB filho = filhos[indice];
+        NoArvoreB irmao = filhos[indice - 1];
+        int movidos = 1; // A chave separadora mais a subárvore que troca de lado
+
+        for (int i = filho.numChaves - 1; i >= 0; i--) {
+            filho.chaves[i + 1] = filho.chaves[i];
+            filho.codigos[i + 1] = filho.codigos[i];
+            filho.textos[i + 1] = filho.textos[i];
+        }
+        filho.chaves[0] = chaves[indice - 1];
+        filho.codigos[0] = codigos[indice - 1];
+        filho.textos[0] = textos[indice - 1];
+        if (!filho.ehFolha) {
+            for (int i = filho.numChaves; i >= 0; i--) {
+                filho.filhos[i + 1] = filho.filhos[i];
+            }
+            filho.filhos[0] = irmao.filhos[irmao.numChaves];
+            irmao.filhos[irmao.numChaves] = null;
+            movidos += filho.filhos[0].total;
+        }
+
+        chaves[indice - 1] = irmao.chaves[irmao.numChaves - 1];
+        codigos[indice - 1] = irmao.codigos[irmao.numChaves - 1];
+        textos[indice - 1] = irmao.textos[irmao.numChaves - 1];
+        irmao.chaves[irmao.numChaves - 1] = null;
+        irmao.textos[irmao.numChaves - 1] = null;
+        filho.numChaves = filho.numChaves + 1;
+        irmao.numChaves = irmao.numChaves - 1;
+        filho.total += movidos;
+        irmao.total -= movidos;
+    }
+
+    // A chave separadora desce para o fim de filhos[indice] e a primeira chave do próximo
+    // irmão sobe no lugar dela, levando o primeiro filho do irmão junto
+    private void emprestarDoProximo(int indice) {
+        NoArvoreB filho = filhos[indice];
+        NoArvoreB irmao = filhos[indice + 1];
+        int movidos = 1;
+
+        filho.chaves[filho.numChaves] = chaves[indice];
+        filho.codigos[filho.numChaves] = codigos[indice];
+        filho.textos[filho.numChaves] = textos[indice];
+        if (!filho.ehFolha) {
+            filho.filhos[filho.numChaves + 1] = irmao.filhos[0];
+            movidos += irmao.filhos[0].total;
+            for (int i = 1; i <= irmao.numChaves; i++) {
+                irmao.filhos[i - 1] = irmao.filhos[i];
+            }
+            irmao.filhos[irmao.numChaves] = null;
+        }
+
+        chaves[indice] = irmao.chaves[0];
+        codigos[indice] = irmao.codigos[0];
+        textos[indice] = irmao.textos[0];
+        for (int i = 1; i < irmao.numChaves; i++) {
+            irmao.chaves[i - 1] = irmao.chaves[i];
+            irmao.codigos[i - 1] = irmao.codigos[i];
+            irmao.textos[i - 1] = irmao.textos[i];
+        }
+        irmao.chaves[irmao.numChaves - 1] = null;
+        irmao.textos[irmao.numChaves - 1] = null;
+        filho.numChaves = filho.numChaves + 1;
+        irmao.numChaves = irmao.numChaves - 1;
+        filho.total += movidos;
+        irmao.total -= movidos;
+    }
+
+    // Junta filhos[indice], a chave separadora e filhos[indice + 1] (ambos com t - 1 chaves)
+    // num único nó com 2t - 1 chaves e tira a separadora e o irmão deste nó
+    public void fundir(int indice) {
+        NoArvoreB filho = filhos[indice];
+        NoArvoreB irmao = filhos[indice + 1];
+
+        filho.chaves[filho.numChaves] = chaves[indice];
+        filho.codigos[filho.numChaves] = codigos[indice];
+        filho.textos[filho.numChaves] = textos[indice];
+        for (int i = 0; i < irmao.numChaves; i++) {
+            filho.chaves[filho.numChaves + 1 + i] = irmao.chaves[i];
+            filho.codigos[filho.numChaves + 1 + i] = irmao.codigos[i];
+            filho.textos[filho.numChaves + 1 + i] = irmao.textos[i];
+        }
+        if (!filho.ehFolha) {
+            for (int i = 0; i <= irmao.numChaves; i++) {
+                filho.filhos[filho.numChaves + 1 + i] = irmao.filhos[i];
+            }
+        }
+        filho.numChaves = filho.numChaves + irmao.numChaves + 1;
+        filho.total += irmao.total + 1;
+
+        for (int i = indice + 1; i < numChaves; i++) {
+            chaves[i - 1] = chaves[i];
+            codigos[i - 1] = codigos[i];
+            textos[i - 1] = textos[i];
+        }
+        for (int i = indice + 2; i <= numChaves; i++) {
+            filhos[i - 1] = filhos[i];
+        }
+        chaves[numChaves - 1] = null;
+        textos[numChaves - 1] = null;
+        filhos[numChaves] = null;
+        numChaves = numChaves - 1;
+    }
+
+    // Método para exibir as chaves (Livros) do nó 
+    public void exibirNo() {
+        System.out.print("["); // escreva("[") 
+        for (int i = 0; i < numChaves; i++) { // para i de 0 ate numChaves - 1 faca 
+            System.out.print(chaves[i].isbn + " (" + chaves[i].titulo + ")"); // escreva (chaves[i]) 
+            if (i < numChaves - 1) { // se i < numChaves - 1 entao 
+                System.out.print(", "); // escreva(", ") 
+            }
+        }
+        System.out.print("]"); // escreva("]") 
+    }
+}
@@ -0,0 +1,63 @@
+// Ordem das chaves de uma Árvore B de livros (IndiceLivros). Cada livro tem um código long
+// que respeita a ordem: códigos diferentes já decidem a comparação, e só entre códigos iguais
+// a ordem desempata pelo texto do livro (o título, ou o ISBN que não cabe num long). Os nós
+// guardam códigos e textos lado a lado com as chaves, então a busca binária quase sempre
+// compara apenas longs e nunca precisa abrir o objeto Livro para comparar.
+enum OrdemLivros {
+    // Pelo ISBN: o código é Livro.chave; os ISBNs de texto empatam em CHAVE_TEXTO e são
+    // comparados pela string normalizada
+    POR_ISBN {
+        long codigo(Livro livro) {
+            return livro.chave;
+        }
+
+        String texto(Livro livro) {
+            return livro.textoChave;
+        }
+
+        int desempatar(String texto, Livro chave, Livro sonda) {
+            return texto != null ? Livro.compareStrings(texto, sonda.textoChave) : 0;
+        }
+    },
+
+    // Pelo título e, entre títulos iguais, pelo ISBN. O código são os 4 primeiros caracteres
+    // do título, 16 bits cada, completados com zeros (o menor caractere, então um título
+    // que é prefixo de outro continua vindo antes); o bit de sinal é invertido para que a
+    // comparação de longs com sinal siga a ordem sem sinal dos caracteres
+    POR_TITULO {
+        long codigo(Livro livro) {
+            long codigo = 0;
+            for (int i = 0; i < 4; i++) {
+                codigo = codigo << 16 | (i < livro.titulo.length() ? livro.titulo.charAt(i) : 0);
+            }
+            return codigo ^ Long.MIN_VALUE;
+        }
+
+        String texto(Livro livro) {
+            return livro.titulo;
+        }
+
+        int desempatar(String texto, Livro chave, Livro sonda) {
+            int comparacao = Livro.compareStrings(texto, sonda.titulo);
+            return comparacao != 0 ? comparacao : chave.compararISBN(sonda);
+        }
+    };
+
+    abstract long codigo(Livro livro);
+
+    // Texto do desempate, ou null se o código basta
+    abstract String texto(Livro livro);
+
+    // Compara a chave, cujo texto é texto, com a sonda quando as duas têm o mesmo código
+    abstract int desempatar(String texto, Livro chave, Livro sonda);
+
+    // Comparação completa, para ordenar os livros antes de construirOrdenado
+    int comparar(Livro a, Livro b) {
+        long codigoA = codigo(a);
+        long codigoB = codigo(b);
+        if (codigoA != codigoB) {
+            return codigoA < codigoB ? -1 : 1;
+        }
+        return desempatar(texto(a), a, b);
+    }
+}